@@ -0,0 +1,22 @@
+package starterproject.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected on the command line, which takes the usual JMH options, with the GC
+ * profiler so that allocation rate is reported next to throughput
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    Options options =
+        new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,51 @@
+package starterproject.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import starterproject.foodsupplier.data.Vendor;
+import starterproject.foodsupplier.services.FoodSupplierService;
+
+/**
+ * FoodSupplierService.getVendorsByIngredient against catalogs of increasing size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FoodSupplierBenchmark {
+
+  @Param({"10", "1000", "100000", "1000000"})
+  int vendors;
+
+  FoodSupplierService foodSupplierService;
+
+  @Setup
+  public void setUp() {
+    foodSupplierService = new FoodSupplierService(SyntheticCatalog.ingredientIndex(vendors));
+  }
+
+  @Benchmark
+  public List<Vendor> getVendorsByIngredient() {
+    return foodSupplierService.getVendorsByIngredient(SyntheticCatalog.ITEM);
+  }
+
+  @Benchmark
+  public List<Vendor> getVendorsByMissingIngredient() {
+    return foodSupplierService.getVendorsByIngredient("missing");
+  }
+}
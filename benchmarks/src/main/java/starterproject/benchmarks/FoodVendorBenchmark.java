@@ -0,0 +1,75 @@
+package starterproject.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import starterproject.foodvendor.data.Inventory;
+import starterproject.foodvendor.data.InventoryStore;
+import starterproject.foodvendor.data.MappedInventory;
+import starterproject.foodvendor.data.Vendor;
+import starterproject.foodvendor.data.VendorInventory;
+import starterproject.foodvendor.services.FoodVendorService;
+
+/**
+ * FoodVendorService.getIngredientFromVendors for requests of up to 10k vendors against catalogs of
+ * increasing size, held on the heap or read from a memory-mapped snapshot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FoodVendorBenchmark {
+  private static final int MAX_REQUESTED_VENDORS = 10000;
+
+  @Param({"10", "1000", "100000", "1000000"})
+  int vendors;
+  @Param({"heap", "mapped"})
+  String inventory;
+
+  FoodVendorService foodVendorService;
+  List<Vendor> requestedVendors;
+  Path snapshot;
+
+  @Setup
+  public void setUp() throws IOException {
+    InventoryStore inventoryStore = SyntheticCatalog.inventoryStore(vendors);
+    Inventory served = inventoryStore;
+    if ("mapped".equals(inventory)) {
+      snapshot = Files.createTempFile("inventory", ".snapshot");
+      MappedInventory.write(inventoryStore, snapshot);
+      served = MappedInventory.open(snapshot);
+    }
+    foodVendorService = new FoodVendorService(served);
+    requestedVendors = SyntheticCatalog.vendorsWithItem(vendors, MAX_REQUESTED_VENDORS);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (snapshot != null) {
+      Files.delete(snapshot);
+    }
+  }
+
+  @Benchmark
+  public List<VendorInventory> getIngredientFromVendors() {
+    return foodVendorService.getIngredientFromVendors(requestedVendors, SyntheticCatalog.ITEM);
+  }
+}
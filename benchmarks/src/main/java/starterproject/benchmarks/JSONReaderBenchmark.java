@@ -0,0 +1,66 @@
+package starterproject.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import starterproject.foodvendor.data.InventoryStore;
+import starterproject.foodvendor.helpers.JSONReaderHelper;
+
+/**
+ * Streaming a vendors.json shaped catalog from a temporary file into an InventoryStore, the same
+ * path FoodVendorService takes at startup. The heap is capped well below the catalog's tree size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class JSONReaderBenchmark {
+  private static final String CATALOG = "benchmark-vendors.json";
+
+  @Param({"10", "1000", "100000", "1000000"})
+  int vendors;
+
+  Path directory;
+  Path catalog;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("catalog");
+    catalog = directory.resolve(CATALOG);
+    SyntheticCatalog.writeVendorsJson(catalog, vendors);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public InventoryStore readInventory() throws IOException {
+    InventoryStore.Builder builder = InventoryStore.newBuilder();
+    try (InputStream in = Files.newInputStream(catalog)) {
+      JSONReaderHelper.readInventory(in, CATALOG, Files.size(catalog), builder::addItem);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,170 @@
+package starterproject.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the highest number of concurrent requests a service sustains, to compare the platform and
+ * virtual thread modes. Each step keeps a fixed number of requests in flight for a while, and the
+ * number doubles until the p99 latency exceeds the objective or more than 1% of requests fail. A
+ * request fails on a status of 300 or more, or on an empty or null body.
+ *
+ * <p>Start the service twice, on two ports, with spring.threads.virtual.enabled false and true,
+ * then pass each as label=url, for example
+ *
+ * <pre>
+ * java -cp benchmarks.jar starterproject.benchmarks.LoadTest
+ *     platform=http://localhost:8080/foodfinder/ingredient?ingredientName=item1
+ *     virtual=http://localhost:8090/foodfinder/ingredient?ingredientName=item1
+ * </pre>
+ *
+ * The system properties loadtest.max-concurrency, loadtest.step-seconds and loadtest.slo-ms
+ * change the limits.
+ */
+public class LoadTest {
+  private static final int START_CONCURRENCY = 16;
+  private static final double MAX_ERROR_RATE = 0.01;
+
+  public static void main(String[] args) throws Exception {
+    int maxConcurrency = Integer.getInteger("loadtest.max-concurrency", 4096);
+    long stepMillis = TimeUnit.SECONDS.toMillis(Long.getLong("loadtest.step-seconds", 10));
+    long sloMillis = Long.getLong("loadtest.slo-ms", 500);
+    // HTTP/1.1 so that every request in flight has its own connection and server thread
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5)).build();
+
+    Map<String, Integer> sustained = new LinkedHashMap<String, Integer>();
+    for (String arg : args) {
+      int split = arg.indexOf('=');
+      String label = arg.substring(0, split);
+      URI target = URI.create(arg.substring(split + 1));
+
+      // warm up the JIT and the connection pool
+      run(client, target, START_CONCURRENCY, stepMillis);
+      System.out.println(String.format("%-10s %12s %12s %10s %8s", "target", "concurrency",
+          "requests/s", "p99 ms", "errors"));
+      int best = 0;
+      for (int concurrency = START_CONCURRENCY; concurrency <= maxConcurrency; concurrency *= 2) {
+        Step step = run(client, target, concurrency, stepMillis);
+        System.out.println(String.format("%-10s %12d %12.0f %10.1f %7.2f%%", label, concurrency,
+            step.throughput(), step.p99Millis(), step.errorRate() * 100));
+        if (step.p99Millis() > sloMillis || step.errorRate() > MAX_ERROR_RATE) {
+          break;
+        }
+        best = concurrency;
+      }
+      sustained.put(label, best);
+    }
+
+    System.out.println(String.format("Max sustainable concurrency at p99 <= %d ms: %s", sloMillis,
+        sustained));
+  }
+
+  private static Step run(HttpClient client, URI target, int concurrency, long millis)
+      throws InterruptedException {
+    HttpRequest request =
+        HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(30)).GET().build();
+    long start = System.nanoTime();
+    long deadline = start + TimeUnit.MILLISECONDS.toNanos(millis);
+    CountDownLatch done = new CountDownLatch(concurrency);
+    Slot[] slots = new Slot[concurrency];
+    for (int i = 0; i < concurrency; i++) {
+      slots[i] = new Slot(client, request, deadline, done);
+      slots[i].send();
+    }
+    done.await();
+    return new Step(slots, System.nanoTime() - start);
+  }
+
+  // one request in flight at a time, sent again as soon as the last one completes
+  private static class Slot {
+    private final HttpClient client;
+    private final HttpRequest request;
+    private final long deadline;
+    private final CountDownLatch done;
+    private long[] latencies = new long[1024];
+    private int completed;
+    private int errors;
+
+    private Slot(HttpClient client, HttpRequest request, long deadline, CountDownLatch done) {
+      this.client = client;
+      this.request = request;
+      this.deadline = deadline;
+      this.done = done;
+    }
+
+    private void send() {
+      long start = System.nanoTime();
+      client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+          .whenCompleteAsync((response, error) -> {
+            long now = System.nanoTime();
+            if (error != null || failed(response)) {
+              errors++;
+            }
+            if (completed == latencies.length) {
+              latencies = Arrays.copyOf(latencies, completed * 2);
+            }
+            latencies[completed++] = now - start;
+            if (now < deadline) {
+              send();
+            } else {
+              done.countDown();
+            }
+          });
+    }
+  }
+
+  // foodfinder answers 200 with no body when a downstream call fails or is refused by its
+  // bulkhead or circuit breaker, which under overload is the common failure
+  private static boolean failed(HttpResponse<String> response) {
+    String body = response.body().trim();
+    return response.statusCode() >= 300 || body.isEmpty() || body.equals("null");
+  }
+
+  private static class Step {
+    private final long[] latencies;
+    private final int errors;
+    private final long elapsedNanos;
+
+    private Step(Slot[] slots, long elapsedNanos) {
+      int completed = 0;
+      int errors = 0;
+      for (Slot slot : slots) {
+        completed += slot.completed;
+        errors += slot.errors;
+      }
+      this.latencies = new long[completed];
+      int next = 0;
+      for (Slot slot : slots) {
+        System.arraycopy(slot.latencies, 0, latencies, next, slot.completed);
+        next += slot.completed;
+      }
+      Arrays.sort(latencies);
+      this.errors = errors;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    private double throughput() {
+      return latencies.length / (elapsedNanos / 1e9);
+    }
+
+    private double p99Millis() {
+      if (latencies.length == 0) {
+        return Double.POSITIVE_INFINITY;
+      }
+      return latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1e6;
+    }
+
+    private double errorRate() {
+      return latencies.length == 0 ? 1 : (double) errors / latencies.length;
+    }
+  }
+}
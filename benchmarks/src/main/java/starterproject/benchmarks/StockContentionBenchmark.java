@@ -0,0 +1,68 @@
+package starterproject.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import starterproject.foodvendor.data.InventoryStore;
+import starterproject.foodvendor.data.Reservation;
+import starterproject.foodvendor.data.StockLedger;
+
+/**
+ * Reserve and release from every core against a few hot (vendor, item) entries, where threads
+ * fight over the same stripes, up to thousands of entries, where they mostly do not
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class StockContentionBenchmark {
+
+  @Param({"1", "16", "4096"})
+  int hotEntries;
+
+  StockLedger stockLedger;
+  String[] vendorNames;
+
+  @Setup
+  public void setUp() {
+    InventoryStore.Builder builder = InventoryStore.newBuilder();
+    vendorNames = new String[hotEntries];
+    for (int vendor = 0; vendor < hotEntries; vendor++) {
+      vendorNames[vendor] = SyntheticCatalog.vendorName(vendor);
+      builder.addItem(vendorNames[vendor], SyntheticCatalog.ITEM, 1, 1e12f, "CAD");
+    }
+    stockLedger = new StockLedger(builder.build());
+  }
+
+  @Benchmark
+  public boolean reserveAndRelease() {
+    String vendorName = vendorNames[ThreadLocalRandom.current().nextInt(vendorNames.length)];
+    Reservation reservation =
+        stockLedger.reserve(vendorName, SyntheticCatalog.ITEM, 1, Long.MAX_VALUE);
+    return stockLedger.release(reservation.getId());
+  }
+
+  @Benchmark
+  public boolean reserveAndCommit() {
+    String vendorName = vendorNames[ThreadLocalRandom.current().nextInt(vendorNames.length)];
+    Reservation reservation =
+        stockLedger.reserve(vendorName, SyntheticCatalog.ITEM, 1, Long.MAX_VALUE);
+    return stockLedger.commit(reservation.getId());
+  }
+}
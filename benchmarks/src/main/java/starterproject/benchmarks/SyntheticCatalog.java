@@ -0,0 +1,88 @@
+package starterproject.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import starterproject.foodsupplier.data.IngredientIndex;
+import starterproject.foodvendor.data.InventoryStore;
+import starterproject.foodvendor.data.Vendor;
+
+/**
+ * Generates catalogs shaped like suppliers.json and vendors.json. Vendor i is named shop{i} and
+ * stocks ITEMS_PER_VENDOR of ITEM_COUNT items, so each item is sold by about 3% of vendors.
+ */
+public class SyntheticCatalog {
+  public static final int ITEM_COUNT = 100;
+  public static final int ITEMS_PER_VENDOR = 3;
+  public static final String ITEM = "item0";
+
+  public static String vendorName(int vendor) {
+    return "shop" + vendor;
+  }
+
+  public static String itemName(int vendor, int item) {
+    return "item" + ((vendor * 7 + item * 31) % ITEM_COUNT);
+  }
+
+  public static IngredientIndex ingredientIndex(int vendors) {
+    IngredientIndex.Builder builder = IngredientIndex.newBuilder();
+    for (int vendor = 0; vendor < vendors; vendor++) {
+      for (int item = 0; item < ITEMS_PER_VENDOR; item++) {
+        builder.addItem(vendorName(vendor), itemName(vendor, item));
+      }
+    }
+    return builder.build();
+  }
+
+  public static InventoryStore inventoryStore(int vendors) {
+    InventoryStore.Builder builder = InventoryStore.newBuilder();
+    for (int vendor = 0; vendor < vendors; vendor++) {
+      for (int item = 0; item < ITEMS_PER_VENDOR; item++) {
+        builder.addItem(vendorName(vendor), itemName(vendor, item), vendor % 97, item + 1, "CAD");
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns up to limit vendors that stock {@link #ITEM}, as foodsupplier would
+   */
+  public static List<Vendor> vendorsWithItem(int vendors, int limit) {
+    List<Vendor> vendorsWithItem = new ArrayList<Vendor>();
+    for (int vendor = 0; vendor < vendors && vendorsWithItem.size() < limit; vendor++) {
+      for (int item = 0; item < ITEMS_PER_VENDOR; item++) {
+        if (ITEM.equals(itemName(vendor, item))) {
+          vendorsWithItem.add(new Vendor(vendorName(vendor)));
+          break;
+        }
+      }
+    }
+    return vendorsWithItem;
+  }
+
+  public static void writeVendorsJson(Path file, int vendors) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write('{');
+      for (int vendor = 0; vendor < vendors; vendor++) {
+        if (vendor > 0) {
+          writer.write(',');
+        }
+        writer.write("\"" + vendorName(vendor) + "\":{");
+        for (int item = 0; item < ITEMS_PER_VENDOR; item++) {
+          if (item > 0) {
+            writer.write(',');
+          }
+          writer.write(String.format("\"%s\":{\"price\":%d,\"quantity\":%d,\"currency\":\"CAD\"}",
+              itemName(vendor, item), vendor % 97, item + 1));
+        }
+        writer.write('}');
+      }
+      writer.write('}');
+    }
+  }
+}
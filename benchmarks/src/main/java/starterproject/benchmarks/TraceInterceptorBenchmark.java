@@ -0,0 +1,70 @@
+package starterproject.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.opentelemetry.OpenTelemetry;
+import starterproject.foodsupplier.telemetry.ProbabilitySampler;
+import starterproject.foodsupplier.telemetry.TraceInterceptor;
+
+/**
+ * One request through TraceInterceptor.preHandle and postHandle, with and without an incoming
+ * trace context, for sampled and unsampled requests. No span processor is registered, so export
+ * cost is not included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceInterceptorBenchmark {
+  private static final String TRACEPARENT =
+      "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+  @Param({"1.0", "0.0"})
+  double probability;
+
+  @Param({"true", "false"})
+  boolean withParent;
+
+  TraceInterceptor traceInterceptor;
+  MockHttpServletRequest request;
+
+  @Setup
+  public void setUp() {
+    traceInterceptor = new TraceInterceptor();
+    ReflectionTestUtils.setField(traceInterceptor, "tracer",
+        OpenTelemetry.getTracerFactory().get("benchmark"));
+    // ignore the parent's sampled flag so that probability alone decides
+    ReflectionTestUtils.setField(traceInterceptor, "traceSampler",
+        new ProbabilitySampler(probability));
+
+    request = new MockHttpServletRequest("GET", "/foodsupplier/vendors");
+    if (withParent) {
+      request.addHeader("traceparent", TRACEPARENT);
+    }
+  }
+
+  @Benchmark
+  public MockHttpServletResponse preAndPostHandle() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    traceInterceptor.preHandle(request, response, null);
+    traceInterceptor.postHandle(request, response, null, null);
+    return response;
+  }
+}
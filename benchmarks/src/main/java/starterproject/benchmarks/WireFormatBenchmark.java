@@ -0,0 +1,87 @@
+package starterproject.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import starterproject.foodvendor.data.Vendor;
+import starterproject.foodvendor.data.VendorInventory;
+import starterproject.foodvendor.services.FoodVendorService;
+
+/**
+ * Encoding and decoding the foodvendor request and response bodies of one ingredient lookup as JSON
+ * and as CBOR. The payload sizes are printed when each trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class WireFormatBenchmark {
+  private static final TypeReference<List<Vendor>> VENDORS =
+      new TypeReference<List<Vendor>>() {};
+  private static final TypeReference<List<VendorInventory>> INVENTORIES =
+      new TypeReference<List<VendorInventory>>() {};
+
+  @Param({"1000", "100000", "1000000"})
+  int vendors;
+  @Param({"json", "cbor"})
+  String format;
+
+  ObjectMapper objectMapper;
+  List<Vendor> requestedVendors;
+  List<VendorInventory> inventories;
+  byte[] encodedVendors;
+  byte[] encodedInventories;
+
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = "cbor".equals(format) ? new ObjectMapper(new CBORFactory()) : new ObjectMapper();
+    requestedVendors = SyntheticCatalog.vendorsWithItem(vendors, Integer.MAX_VALUE);
+    inventories = new FoodVendorService(SyntheticCatalog.inventoryStore(vendors))
+        .getIngredientFromVendors(requestedVendors, SyntheticCatalog.ITEM);
+    encodedVendors = objectMapper.writeValueAsBytes(requestedVendors);
+    encodedInventories = objectMapper.writeValueAsBytes(inventories);
+
+    System.out.println(String.format("%n%s payload: %d vendors in %d bytes, %d inventories in %d"
+        + " bytes", format, requestedVendors.size(), encodedVendors.length, inventories.size(),
+        encodedInventories.length));
+  }
+
+  @Benchmark
+  public byte[] encodeVendors() throws IOException {
+    return objectMapper.writeValueAsBytes(requestedVendors);
+  }
+
+  @Benchmark
+  public List<Vendor> decodeVendors() throws IOException {
+    return objectMapper.readValue(encodedVendors, VENDORS);
+  }
+
+  @Benchmark
+  public byte[] encodeInventories() throws IOException {
+    return objectMapper.writeValueAsBytes(inventories);
+  }
+
+  @Benchmark
+  public List<VendorInventory> decodeInventories() throws IOException {
+    return objectMapper.readValue(encodedInventories, INVENTORIES);
+  }
+}
@@ -0,0 +1,42 @@
+package starterproject.foodfinder.controllers;
+
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodfinder.services.CachingFoodFinder;
+
+/**
+ * Invalidates cached ingredient lookups
+ */
+@RestController
+@RequestMapping(value = "/foodfinder/cache")
+public class CacheController {
+  private static final Logger LOG = Logger.getLogger(CacheController.class.getName());
+
+  @Autowired
+  private CachingFoodFinder cachingFoodFinder;
+  @Autowired
+  Tracer tracer;
+
+  @DeleteMapping
+  public void invalidate(@RequestParam(required = false) String ingredientName) {
+    Span span = tracer.getCurrentSpan();
+
+    if (ingredientName == null) {
+      cachingFoodFinder.invalidateAll();
+      span.addEvent("CacheController.invalidateAll");
+      LOG.info("Invalidated all cached ingredients");
+    } else {
+      cachingFoodFinder.invalidate(ingredientName);
+      span.addEvent("CacheController.invalidate");
+      LOG.info(String.format("Invalidated cached ingredient %s", ingredientName));
+    }
+  }
+}
@@ -1,20 +1,34 @@
 package starterproject.foodfinder.controllers;
 
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.Status;
 import io.opentelemetry.trace.Tracer;
 import starterproject.foodfinder.data.VendorInventory;
-import starterproject.foodfinder.services.FoodFinderService;
+import starterproject.foodfinder.services.AsyncFoodFinder;
+import starterproject.foodfinder.services.CurrencyConverter;
+import starterproject.foodfinder.services.FoodFinder;
+import starterproject.foodfinder.services.StreamingFoodFinder;
+import starterproject.foodfinder.services.VendorRanking;
 
 /**
  * Serves vendor ingredient data
@@ -23,21 +37,79 @@ import starterproject.foodfinder.services.FoodFinderService;
 @RequestMapping(value = "/foodfinder/ingredient")
 public class FoodFinderController {
   private static final Logger LOG = Logger.getLogger(FoodFinderController.class.getName());
+  static final String NDJSON = "application/x-ndjson";
 
   @Autowired
-  private FoodFinderService foodFinderService;
+  @Qualifier("cachingFoodFinder")
+  private FoodFinder foodFinder;
+  @Autowired
+  private AsyncFoodFinder asyncFoodFinder;
+  @Autowired
+  private CurrencyConverter currencyConverter;
+  @Autowired
+  private StreamingFoodFinder streamingFoodFinder;
+  @Autowired
+  private ObjectMapper objectMapper;
   @Autowired
   Tracer tracer;
 
+  /**
+   * Serves every vendor of the ingredient, or only the limit best by the ranking when a ranking,
+   * limit or minimum quantity is given. Prices are quoted in the given currency, if any, and an
+   * unknown currency is rejected with a 400.
+   */
   @GetMapping
-  public VendorInventory[] getVendorsByIngredient(@RequestParam String ingredientName) {
+  public ResponseEntity<VendorInventory[]> getVendorsByIngredient(
+      @RequestParam String ingredientName,
+      @RequestParam(required = false) VendorRanking rankBy,
+      @RequestParam(defaultValue = "0") int limit,
+      @RequestParam(defaultValue = "0") float minQuantity,
+      @RequestParam(required = false) String currency) {
     Span span = tracer.getCurrentSpan();
     span.addEvent("FoodFinderController.getVendorsByIngredient");
     LOG.info("FoodFinder Span created");
 
+    // a client error, so the span is not marked as failed
+    if (currency != null && !currencyConverter.getRates().supports(currency)) {
+      span.setAttribute("currency", currency);
+      span.addEvent("Unknown currency requested");
+      return ResponseEntity.badRequest().build();
+    }
+
     VendorInventory[] vendorInventory = null;
     try {
-      vendorInventory = foodFinderService.getIngredient(ingredientName);
+      if (rankBy == null && limit <= 0 && minQuantity <= 0) {
+        vendorInventory = foodFinder.getIngredient(ingredientName);
+      } else {
+        VendorRanking ranking = rankBy == null ? VendorRanking.PRICE : rankBy;
+        span.setAttribute("ranking", ranking.name());
+        span.setAttribute("ranking.limit", limit);
+        vendorInventory = foodFinder.getTopIngredient(ingredientName, ranking,
+            limit > 0 ? limit : Integer.MAX_VALUE, minQuantity, currencyConverter.getRates());
+      }
+      if (currency != null) {
+        span.setAttribute("currency", currency);
+        vendorInventory = currencyConverter.normalize(vendorInventory, currency);
+      }
+    } catch (Exception e) {
+      span.setStatus(Status.ABORTED);
+      span.addEvent("Error while calling service");
+      LOG.severe(String.format("Error while calling service: %s", e.getMessage()));
+    }
+
+    return ResponseEntity.ok(vendorInventory);
+  }
+
+  @GetMapping(value = "batch")
+  public Map<String, VendorInventory[]> getVendorsByIngredients(
+      @RequestParam List<String> ingredientNames) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("FoodFinderController.getVendorsByIngredients");
+    span.setAttribute("ingredients", ingredientNames.size());
+
+    Map<String, VendorInventory[]> vendorInventory = null;
+    try {
+      vendorInventory = foodFinder.getIngredients(ingredientNames);
     } catch (Exception e) {
       span.setStatus(Status.ABORTED);
       span.addEvent("Error while calling service");
@@ -47,6 +119,61 @@ public class FoodFinderController {
     return vendorInventory;
   }
 
+  @GetMapping(value = "async")
+  public CompletableFuture<VendorInventory[]> getVendorsByIngredientAsync(
+      @RequestParam String ingredientName) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("FoodFinderController.getVendorsByIngredientAsync");
+
+    return asyncFoodFinder.getIngredientAsync(ingredientName).exceptionally(e -> {
+      span.setStatus(Status.ABORTED);
+      span.addEvent("Error while calling service");
+      LOG.severe(String.format("Error while calling service: %s", e.getMessage()));
+      return null;
+    });
+  }
+
+  /**
+   * Streams the inventories as newline-delimited JSON as they arrive from the gRPC streams. Errors
+   * after the first inventory can only end the response early.
+   */
+  @GetMapping(value = "stream", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> streamVendorsByIngredient(
+      @RequestParam String ingredientName) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("FoodFinderController.streamVendorsByIngredient");
+
+    StreamingFoodFinder.InventoryStream stream =
+        streamingFoodFinder.streamIngredient(ingredientName);
+    StreamingResponseBody body = out -> {
+      int streamed = 0;
+      try (StreamingFoodFinder.InventoryStream inventories = stream) {
+        for (VendorInventory inventory = inventories.next(); inventory != null;
+            inventory = inventories.next()) {
+          out.write(objectMapper.writeValueAsBytes(inventory));
+          out.write('\n');
+          streamed++;
+          // flush only when nothing else has arrived, so bursts share a write
+          if (!inventories.ready()) {
+            out.flush();
+          }
+        }
+      } catch (IOException e) {
+        throw e;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        span.setStatus(Status.ABORTED);
+        span.addEvent("Error while calling service");
+        LOG.severe(String.format("Error while calling service: %s", e.getMessage()));
+      } finally {
+        span.setAttribute("inventories", streamed);
+      }
+    };
+
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+  }
+
   @PutMapping
   @RequestMapping(value = "error")
   public String error() {
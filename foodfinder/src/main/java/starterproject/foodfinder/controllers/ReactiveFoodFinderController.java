@@ -0,0 +1,111 @@
+package starterproject.foodfinder.controllers;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.Tracer;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.services.ReactiveFoodFinderService;
+import starterproject.foodfinder.telemetry.WebClientTraceFilter;
+
+/**
+ * Serves vendor ingredient data from the reactive pipeline. No thread is held while the downstream
+ * services answer, and each inventory is written as soon as it is decoded.
+ */
+@RestController
+@RequestMapping(value = "/foodfinder/reactive/ingredient")
+public class ReactiveFoodFinderController {
+  private static final Logger LOG = Logger.getLogger(ReactiveFoodFinderController.class.getName());
+  private static final MediaType NDJSON = MediaType.parseMediaType(FoodFinderController.NDJSON);
+
+  @Autowired
+  private ReactiveFoodFinderService reactiveFoodFinderService;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  Tracer tracer;
+
+  /**
+   * Streams the inventories as newline-delimited JSON like /foodfinder/ingredient/stream, or as
+   * server-sent events when those are asked for. Errors after the first inventory can only end the
+   * response early.
+   */
+  @GetMapping(produces = {FoodFinderController.NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public ResponseEntity<ResponseBodyEmitter> getVendorsByIngredient(
+      @RequestParam String ingredientName,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("ReactiveFoodFinderController.getVendorsByIngredient");
+
+    // Spring MVC only streams a Flux as application/stream+json, so the lines are written here
+    boolean events = accepts(accept, MediaType.TEXT_EVENT_STREAM);
+    ResponseBodyEmitter emitter = events ? new SseEmitter() : new ResponseBodyEmitter();
+    AtomicInteger streamed = new AtomicInteger();
+    Flux<VendorInventory> inventories = reactiveFoodFinderService.getIngredient(ingredientName)
+        .onErrorResume(e -> {
+          span.setStatus(Status.ABORTED);
+          span.addEvent("Error while calling service");
+          LOG.severe(String.format("Error while calling service: %s", e.getMessage()));
+          return Flux.empty();
+        })
+        .subscriberContext(WebClientTraceFilter.withSpan(span));
+
+    // writes block, so they are moved off the event loop that decodes the replies
+    Disposable subscription = inventories.publishOn(Schedulers.boundedElastic())
+        .subscribe(inventory -> {
+          try {
+            if (events) {
+              ((SseEmitter) emitter).send(
+                  SseEmitter.event().data(inventory, MediaType.APPLICATION_JSON));
+            } else {
+              emitter.send(line(inventory), NDJSON);
+            }
+            streamed.incrementAndGet();
+          } catch (IOException e) {
+            throw Exceptions.propagate(e);
+          }
+        }, emitter::completeWithError, () -> {
+          span.setAttribute("inventories", streamed.get());
+          emitter.complete();
+        });
+    emitter.onCompletion(subscription::dispose);
+    emitter.onTimeout(subscription::dispose);
+
+    return ResponseEntity.ok().contentType(events ? MediaType.TEXT_EVENT_STREAM : NDJSON)
+        .body(emitter);
+  }
+
+  private byte[] line(VendorInventory inventory) throws IOException {
+    byte[] json = objectMapper.writeValueAsBytes(inventory);
+    byte[] line = new byte[json.length + 1];
+    System.arraycopy(json, 0, line, 0, json.length);
+    line[json.length] = '\n';
+    return line;
+  }
+
+  private static boolean accepts(String accept, MediaType mediaType) {
+    return accept != null && MediaType.parseMediaTypes(accept).stream()
+        .anyMatch(accepted -> accepted.equalsTypeAndSubtype(mediaType));
+  }
+}
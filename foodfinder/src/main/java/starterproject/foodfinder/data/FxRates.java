@@ -0,0 +1,122 @@
+package starterproject.foodfinder.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Exchange rates of ISO 4217 currencies against one base currency. Rates are held in a primitive
+ * array indexed by the three-letter code, so looking up a rate and converting a price never
+ * allocates.
+ */
+public class FxRates {
+  public static final int NOT_FOUND = -1;
+
+  private static final int LETTERS = 26;
+  private static final int CODES = LETTERS * LETTERS * LETTERS;
+
+  private final String base;
+  // value of one unit of each currency in the base currency, NaN if unknown
+  private final double[] toBase;
+  private final int size;
+
+  private FxRates(String base, double[] toBase, int size) {
+    this.base = base;
+    this.toBase = toBase;
+    this.size = size;
+  }
+
+  /**
+   * Reads a properties file with the base currency under "base" and the value of one unit of
+   * every other currency in the base currency under its code, e.g. "CAD=0.73"
+   *
+   * @throws IllegalArgumentException if a code or rate is malformed
+   */
+  public static FxRates load(InputStream in) throws IOException {
+    Properties properties = new Properties();
+    properties.load(in);
+
+    String base = properties.getProperty("base", "").trim().toUpperCase();
+    if (index(base) == NOT_FOUND) {
+      throw new IllegalArgumentException("Missing or malformed base currency: " + base);
+    }
+    double[] toBase = new double[CODES];
+    Arrays.fill(toBase, Double.NaN);
+    toBase[index(base)] = 1;
+    int size = 1;
+
+    for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+      String code = entry.getKey().toString().trim().toUpperCase();
+      if (code.equals("BASE") || code.equals(base)) {
+        continue;
+      }
+      int index = index(code);
+      double rate = parseRate(code, entry.getValue().toString());
+      if (index == NOT_FOUND || !(rate > 0) || Double.isInfinite(rate)) {
+        throw new IllegalArgumentException(
+            String.format("Malformed exchange rate %s=%s", code, entry.getValue()));
+      }
+      toBase[index] = rate;
+      size++;
+    }
+    return new FxRates(base, toBase, size);
+  }
+
+  /**
+   * Returns the array index of a three-letter currency code in either case, or {@link #NOT_FOUND}
+   */
+  public static int index(String currency) {
+    if (currency == null || currency.length() != 3) {
+      return NOT_FOUND;
+    }
+    int index = 0;
+    for (int i = 0; i < 3; i++) {
+      int letter = (currency.charAt(i) | 0x20) - 'a';
+      if (letter < 0 || letter >= LETTERS) {
+        return NOT_FOUND;
+      }
+      index = index * LETTERS + letter;
+    }
+    return index;
+  }
+
+  public String getBase() {
+    return base;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean supports(String currency) {
+    int index = index(currency);
+    return index != NOT_FOUND && !Double.isNaN(toBase[index]);
+  }
+
+  /**
+   * Returns the amount in the base currency, or NaN if the currency is unknown
+   */
+  public double toBase(float amount, String currency) {
+    int index = index(currency);
+    return index == NOT_FOUND ? Double.NaN : amount * toBase[index];
+  }
+
+  /**
+   * Returns the amount in the target currency, or NaN if either currency is unknown
+   */
+  public float convert(float amount, String fromCurrency, String toCurrency) {
+    int to = index(toCurrency);
+    return to == NOT_FOUND ? Float.NaN : (float) (toBase(amount, fromCurrency) / toBase[to]);
+  }
+
+  private static double parseRate(String code, String rate) {
+    try {
+      return Double.parseDouble(rate.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(String.format("Malformed exchange rate %s=%s", code, rate),
+          e);
+    }
+  }
+}
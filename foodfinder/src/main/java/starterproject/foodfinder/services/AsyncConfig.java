@@ -0,0 +1,68 @@
+package starterproject.foodfinder.services;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.grpc.Context;
+import starterproject.foodfinder.telemetry.VirtualThreadConfig;
+
+/**
+ * Executors for downstream calls. The pool size of foodServiceExecutor is the upper bound on
+ * concurrent foodvendor calls made by {@link AsyncFoodFinderService} across all requests. When
+ * spring.threads.virtual.enabled is true the pools keep their bounds but their threads are virtual,
+ * and each task runs in the OpenTelemetry context it was submitted from.
+ */
+@Configuration
+public class AsyncConfig {
+  @Value("${spring.threads.virtual.enabled:false}")
+  boolean virtualThreads;
+
+  @Bean
+  public Executor foodServiceExecutor(
+      @Value("${foodfinder.async.max-concurrency:16}") int maxConcurrency,
+      @Value("${foodfinder.async.queue-capacity:1000}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(maxConcurrency);
+    executor.setMaxPoolSize(maxConcurrency);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("food-service-");
+    useVirtualThreads(executor);
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Runs the calls made by {@link HedgedCalls}. It is separate from foodServiceExecutor, whose
+   * threads wait on hedged calls and could otherwise use up the pool. When every thread is busy
+   * the call runs on the caller's thread, unhedged.
+   */
+  @Bean
+  public Executor hedgeExecutor(
+      @Value("${foodfinder.hedge.max-concurrency:64}") int maxConcurrency) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(maxConcurrency);
+    executor.setMaxPoolSize(maxConcurrency);
+    executor.setQueueCapacity(0);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setThreadNamePrefix("hedge-");
+    useVirtualThreads(executor);
+    executor.initialize();
+    return executor;
+  }
+
+  private void useVirtualThreads(ThreadPoolTaskExecutor executor) {
+    ThreadFactory factory = virtualThreads
+        ? VirtualThreadConfig.virtualThreadFactory(executor.getThreadNamePrefix())
+        : null;
+    if (factory != null) {
+      executor.setThreadFactory(factory);
+      executor.setTaskDecorator(task -> Context.current().wrap(task));
+    }
+  }
+}
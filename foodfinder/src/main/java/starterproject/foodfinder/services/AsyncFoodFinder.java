@@ -0,0 +1,13 @@
+package starterproject.foodfinder.services;
+
+import java.util.concurrent.CompletableFuture;
+
+import starterproject.foodfinder.data.VendorInventory;
+
+/**
+ * Gets the inventory of all vendors with an ingredient without blocking the calling thread
+ */
+public interface AsyncFoodFinder {
+
+  public CompletableFuture<VendorInventory[]> getIngredientAsync(String ingredient);
+}
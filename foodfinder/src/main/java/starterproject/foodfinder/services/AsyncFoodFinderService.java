@@ -0,0 +1,108 @@
+package starterproject.foodfinder.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodfinder.data.Vendor;
+import starterproject.foodfinder.data.VendorInventory;
+
+/**
+ * Finds the price and quantity of an ingredient from every vendor that stocks it. The vendor list
+ * from foodsupplier is split into batches that are sent to foodvendor concurrently, so latency is
+ * bounded by the slowest batch rather than the sum of all of them. A call that times out is
+ * cancelled, so it leaves the executor's queue or stops waiting on the downstream service instead
+ * of holding a pool thread after its request has given up.
+ */
+@Service
+public class AsyncFoodFinderService implements AsyncFoodFinder {
+  @Autowired
+  FoodService foodService;
+  @Autowired
+  Tracer tracer;
+  @Autowired
+  @Qualifier("foodServiceExecutor")
+  Executor executor;
+
+  @Value("${foodfinder.async.batch-size:500}")
+  int batchSize;
+  @Value("${foodfinder.async.timeout-ms:2000}")
+  long timeoutMillis;
+
+  @Override
+  public CompletableFuture<VendorInventory[]> getIngredientAsync(String ingredientName) {
+    Span span = tracer.getCurrentSpan();
+
+    return call(span, () -> foodService.getVendorsByIngredient(ingredientName))
+        .thenCompose(vendors -> getIngredientFromVendors(span, vendors, ingredientName));
+  }
+
+  private CompletableFuture<VendorInventory[]> getIngredientFromVendors(Span span,
+      Vendor[] vendors, String ingredientName) {
+    if (vendors == null || vendors.length == 0) {
+      return CompletableFuture.completedFuture(new VendorInventory[0]);
+    }
+
+    List<CompletableFuture<VendorInventory[]>> batches =
+        new ArrayList<CompletableFuture<VendorInventory[]>>();
+    for (int from = 0; from < vendors.length; from += batchSize) {
+      int to = Math.min(from + batchSize, vendors.length);
+      Vendor[] batch = Arrays.copyOfRange(vendors, from, to);
+      batches.add(call(span, () -> foodService.getIngredientFromVendors(batch, ingredientName)));
+    }
+    span.setAttribute("foodvendor.batches", batches.size());
+
+    return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0]))
+        .thenApply(done -> merge(batches));
+  }
+
+  private <T> CompletableFuture<T> call(Span span, FoodServiceCall<T> call) {
+    CompletableFuture<T> result = new CompletableFuture<T>();
+    FutureTask<Void> task = new FutureTask<Void>(() -> {
+      try (Scope scope = tracer.withSpan(span)) {
+        result.complete(call.execute());
+      } catch (Throwable e) {
+        result.completeExceptionally(new CompletionException(e));
+      }
+      return null;
+    });
+    // orTimeout alone would leave the task queued or running, so it is interrupted as well
+    result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+      if (error instanceof TimeoutException) {
+        task.cancel(true);
+      }
+    });
+    executor.execute(task);
+    return result;
+  }
+
+  private static VendorInventory[] merge(List<CompletableFuture<VendorInventory[]>> batches) {
+    List<VendorInventory> inventories = new ArrayList<VendorInventory>();
+    for (CompletableFuture<VendorInventory[]> batch : batches) {
+      VendorInventory[] batchInventories = batch.join();
+      if (batchInventories != null) {
+        inventories.addAll(Arrays.asList(batchInventories));
+      }
+    }
+    return inventories.toArray(new VendorInventory[0]);
+  }
+
+  @FunctionalInterface
+  interface FoodServiceCall<T> {
+    T execute() throws Exception;
+  }
+}
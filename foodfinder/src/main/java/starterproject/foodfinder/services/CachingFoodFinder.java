@@ -0,0 +1,173 @@
+package starterproject.foodfinder.services;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodfinder.data.VendorInventory;
+
+/**
+ * Caches ingredient lookups in two tiers. The first tier is a bounded in-process cache that serves
+ * stale entries while they are reloaded in the background. The optional second tier keeps results
+ * in local files so they survive a restart. Cache activity is recorded on the current span.
+ */
+@Service
+public class CachingFoodFinder implements FoodFinder {
+  private final FoodFinder delegate;
+  private final Tracer tracer;
+  private final boolean enabled;
+  private final IngredientLoader loader = new IngredientLoader();
+  private final LoadingCache<String, VendorInventory[]> cache;
+  private final FileResultCache fileCache;
+  private final AtomicLong fileHits = new AtomicLong();
+
+  @Autowired
+  public CachingFoodFinder(@Qualifier("coalescingFoodFinder") FoodFinder delegate, Tracer tracer,
+      @Qualifier("foodServiceExecutor") Executor executor,
+      @Value("${foodfinder.cache.enabled:true}") boolean enabled,
+      @Value("${foodfinder.cache.max-size:10000}") long maxSize,
+      @Value("${foodfinder.cache.ttl-ms:300000}") long timeToLiveMillis,
+      @Value("${foodfinder.cache.refresh-ms:60000}") long refreshMillis,
+      @Value("${foodfinder.cache.file.enabled:false}") boolean fileEnabled,
+      @Value("${foodfinder.cache.file.dir:cache}") String fileDirectory,
+      @Value("${foodfinder.cache.file.ttl-ms:86400000}") long fileTimeToLiveMillis)
+      throws IOException {
+    this.delegate = delegate;
+    this.tracer = tracer;
+    this.enabled = enabled;
+    this.fileCache = fileEnabled
+        ? new FileResultCache(Paths.get(fileDirectory), fileTimeToLiveMillis)
+        : null;
+    this.cache = Caffeine.newBuilder().maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(timeToLiveMillis))
+        .refreshAfterWrite(Duration.ofMillis(refreshMillis)).executor(executor).recordStats()
+        .build(loader);
+  }
+
+  @Override
+  public VendorInventory[] getIngredient(String ingredientName) throws Exception {
+    if (!enabled) {
+      return delegate.getIngredient(ingredientName);
+    }
+
+    Span span = tracer.getCurrentSpan();
+    boolean[] loaded = {false};
+    VendorInventory[] inventories = cache.get(ingredientName, name -> {
+      loaded[0] = true;
+      try {
+        return loader.load(name);
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    });
+    span.setAttribute("cache.hit", !loaded[0]);
+
+    CacheStats stats = cache.stats();
+    span.setAttribute("cache.hits", stats.hitCount());
+    span.setAttribute("cache.misses", stats.missCount());
+    span.setAttribute("cache.evictions", stats.evictionCount());
+    span.setAttribute("cache.file.hits", fileHits.get());
+
+    return inventories;
+  }
+
+  /**
+   * Serves cached ingredients from the in-process tier and resolves the rest with one batch lookup
+   */
+  @Override
+  public Map<String, VendorInventory[]> getIngredients(List<String> ingredientNames)
+      throws Exception {
+    if (!enabled) {
+      return delegate.getIngredients(ingredientNames);
+    }
+
+    Map<String, VendorInventory[]> inventoriesByIngredient =
+        new LinkedHashMap<String, VendorInventory[]>(ingredientNames.size() * 2);
+    List<String> missing = new ArrayList<String>();
+    for (String ingredientName : ingredientNames) {
+      VendorInventory[] inventories = cache.getIfPresent(ingredientName);
+      inventoriesByIngredient.put(ingredientName, inventories);
+      if (inventories == null) {
+        missing.add(ingredientName);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      Map<String, VendorInventory[]> loaded = delegate.getIngredients(missing);
+      for (String ingredientName : missing) {
+        VendorInventory[] inventories = loaded.get(ingredientName);
+        inventoriesByIngredient.put(ingredientName, inventories);
+        if (inventories != null) {
+          cache.put(ingredientName, inventories);
+          if (fileCache != null) {
+            fileCache.put(ingredientName, inventories);
+          }
+        }
+      }
+    }
+    tracer.getCurrentSpan().setAttribute("cache.batch.misses", missing.size());
+
+    return inventoriesByIngredient;
+  }
+
+  public void invalidate(String ingredientName) {
+    cache.invalidate(ingredientName);
+    if (fileCache != null) {
+      fileCache.invalidate(ingredientName);
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+    if (fileCache != null) {
+      fileCache.invalidateAll();
+    }
+  }
+
+  private class IngredientLoader implements CacheLoader<String, VendorInventory[]> {
+
+    @Override
+    public VendorInventory[] load(String ingredientName) throws Exception {
+      if (fileCache != null) {
+        VendorInventory[] inventories = fileCache.get(ingredientName);
+        if (inventories != null) {
+          fileHits.incrementAndGet();
+          return inventories;
+        }
+      }
+      return reload(ingredientName, null);
+    }
+
+    // refreshes always go downstream, the file tier is at least as old as the stale entry
+    @Override
+    public VendorInventory[] reload(String ingredientName, VendorInventory[] oldInventories)
+        throws Exception {
+      VendorInventory[] inventories = delegate.getIngredient(ingredientName);
+      if (fileCache != null && inventories != null) {
+        fileCache.put(ingredientName, inventories);
+      }
+      return inventories;
+    }
+  }
+}
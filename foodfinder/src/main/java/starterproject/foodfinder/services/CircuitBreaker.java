@@ -0,0 +1,178 @@
+package starterproject.foodfinder.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calls to a downstream service while it is failing. The breaker opens when the failure rate
+ * of the last calls reaches a threshold, rejects every call while open, and after a pause lets a
+ * few trial calls through. It closes again if they all succeed and reopens if any fails.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  /**
+   * Notified after each state change, on the thread whose call caused it
+   */
+  @FunctionalInterface
+  public interface Listener {
+    void onStateChange(CircuitBreaker breaker, State from, State to);
+  }
+
+  private final String name;
+  private final int minimumCalls;
+  private final double failureRatePercent;
+  private final long openNanos;
+  private final int halfOpenCalls;
+  private final Listener listener;
+
+  // outcomes of the last calls while closed, true for a failure
+  private final boolean[] window;
+  private int next;
+  private int recorded;
+  private int failures;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int halfOpenPermits;
+  private int halfOpenSuccesses;
+
+  /**
+   * @param windowSize the number of recent calls the failure rate is computed over
+   * @param minimumCalls the number of calls needed before the breaker can open
+   * @param failureRatePercent the failure rate at which the breaker opens
+   * @param openMillis how long the breaker stays open before trying calls again
+   * @param halfOpenCalls the number of trial calls that must succeed to close the breaker
+   */
+  public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRatePercent,
+      long openMillis, int halfOpenCalls, Listener listener) {
+    this.name = name;
+    this.window = new boolean[windowSize];
+    this.minimumCalls = Math.min(minimumCalls, windowSize);
+    this.failureRatePercent = failureRatePercent;
+    this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    this.halfOpenCalls = halfOpenCalls;
+    this.listener = listener;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * Asks to make a call. Every permitted call must be followed by exactly one of
+   * {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored}.
+   *
+   * @return false if the call must not be made
+   */
+  public boolean tryAcquire() {
+    State from;
+    State to;
+    boolean permitted = true;
+    synchronized (this) {
+      from = state;
+      if (state == State.OPEN) {
+        if (System.nanoTime() - openedAt < openNanos) {
+          return false;
+        }
+        moveTo(State.HALF_OPEN);
+      }
+      if (state == State.HALF_OPEN) {
+        if (halfOpenPermits == 0) {
+          permitted = false;
+        } else {
+          halfOpenPermits--;
+        }
+      }
+      to = state;
+    }
+    stateChanged(from, to);
+    return permitted;
+  }
+
+  public void onSuccess() {
+    State from;
+    State to;
+    synchronized (this) {
+      from = state;
+      if (state == State.HALF_OPEN) {
+        if (++halfOpenSuccesses >= halfOpenCalls) {
+          moveTo(State.CLOSED);
+        }
+      } else if (state == State.CLOSED) {
+        record(false);
+      }
+      to = state;
+    }
+    stateChanged(from, to);
+  }
+
+  public void onFailure() {
+    State from;
+    State to;
+    synchronized (this) {
+      from = state;
+      if (state == State.HALF_OPEN) {
+        moveTo(State.OPEN);
+      } else if (state == State.CLOSED) {
+        record(true);
+        if (recorded >= minimumCalls && failures * 100.0 >= failureRatePercent * recorded) {
+          moveTo(State.OPEN);
+        }
+      }
+      to = state;
+    }
+    stateChanged(from, to);
+  }
+
+  /**
+   * Ends a permitted call that says nothing about the health of the downstream service
+   */
+  public synchronized void onIgnored() {
+    if (state == State.HALF_OPEN) {
+      halfOpenPermits++;
+    }
+  }
+
+  private void record(boolean failure) {
+    if (recorded == window.length) {
+      if (window[next]) {
+        failures--;
+      }
+    } else {
+      recorded++;
+    }
+    window[next] = failure;
+    if (failure) {
+      failures++;
+    }
+    next = (next + 1) % window.length;
+  }
+
+  private void moveTo(State to) {
+    state = to;
+    if (to == State.OPEN) {
+      openedAt = System.nanoTime();
+    } else if (to == State.HALF_OPEN) {
+      halfOpenPermits = halfOpenCalls;
+      halfOpenSuccesses = 0;
+    } else {
+      next = 0;
+      recorded = 0;
+      failures = 0;
+    }
+  }
+
+  // runs the listener outside the lock
+  private void stateChanged(State from, State to) {
+    if (from != to && listener != null) {
+      listener.onStateChange(this, from, to);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package starterproject.foodfinder.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodfinder.data.VendorInventory;
+
+/**
+ * Shares one downstream lookup between concurrent callers asking for the same ingredient. The
+ * caller that starts the lookup records how many callers joined it, and every caller that joined
+ * is tagged as coalesced. Callers that joined wait at most the downstream deadline, so a stuck
+ * lookup cannot hold them longer than it would hold its own caller.
+ */
+@Service
+public class CoalescingFoodFinder implements FoodFinder {
+  private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<String, Flight>();
+  private final FoodFinder delegate;
+  private final Tracer tracer;
+  private final long deadlineMillis;
+
+  @Autowired
+  public CoalescingFoodFinder(@Qualifier("foodFinderService") FoodFinder delegate, Tracer tracer,
+      @Value("${foodfinder.hedge.deadline-ms:5000}") long deadlineMillis) {
+    this.delegate = delegate;
+    this.tracer = tracer;
+    this.deadlineMillis = deadlineMillis;
+  }
+
+  @Override
+  public VendorInventory[] getIngredient(String ingredientName) throws Exception {
+    Span span = tracer.getCurrentSpan();
+    Flight flight = new Flight();
+    Flight existing = inFlight.putIfAbsent(ingredientName, flight);
+
+    if (existing != null) {
+      existing.waiters.incrementAndGet();
+      span.setAttribute("singleflight.coalesced", true);
+      span.addEvent("Joined in-flight ingredient lookup");
+      return existing.await(deadlineMillis);
+    }
+
+    span.setAttribute("singleflight.coalesced", false);
+    try {
+      VendorInventory[] inventories = delegate.getIngredient(ingredientName);
+      flight.result.complete(inventories);
+      return inventories;
+    } catch (Throwable e) {
+      // an Error too, or the callers that joined would never be released
+      flight.result.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(ingredientName, flight);
+      span.setAttribute("singleflight.waiters", flight.waiters.get());
+    }
+  }
+
+  @Override
+  public Map<String, VendorInventory[]> getIngredients(List<String> ingredientNames)
+      throws Exception {
+    return delegate.getIngredients(ingredientNames);
+  }
+
+  private static class Flight {
+    private final CompletableFuture<VendorInventory[]> result =
+        new CompletableFuture<VendorInventory[]>();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private VendorInventory[] await(long timeoutMillis) throws Exception {
+      try {
+        return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof Exception) {
+          throw (Exception) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package starterproject.foodfinder.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import starterproject.foodfinder.data.FxRates;
+import starterproject.foodfinder.data.Ingredient;
+import starterproject.foodfinder.data.VendorInventory;
+
+/**
+ * Quotes vendor prices in one currency. Rates come from a local properties file, the bundled
+ * sample rates unless a path is configured. Rate lookups do not allocate, but a returned row whose
+ * price changes is a copy, since the rows may be shared with the cache.
+ */
+@Service
+public class CurrencyConverter {
+  private static final Logger LOG = Logger.getLogger(CurrencyConverter.class.getName());
+  private static final String BUNDLED_RATES = "fx-rates.properties";
+
+  private final FxRates rates;
+
+  @Autowired
+  public CurrencyConverter(@Value("${foodfinder.fx.rates-path:}") String ratesPath)
+      throws IOException {
+    try (InputStream in = ratesPath == null || ratesPath.isEmpty()
+        ? new ClassPathResource(BUNDLED_RATES).getInputStream()
+        : Files.newInputStream(Paths.get(ratesPath))) {
+      this.rates = FxRates.load(in);
+    }
+    LOG.info(String.format("Loaded %d exchange rates against %s", rates.size(), rates.getBase()));
+  }
+
+  public CurrencyConverter(FxRates rates) {
+    this.rates = rates;
+  }
+
+  public FxRates getRates() {
+    return rates;
+  }
+
+  /**
+   * Returns the inventories with every price in the target currency. The given inventories may be
+   * cached and are left untouched: a row is copied only if one of its prices changes, rows already
+   * in the target currency are returned as they are. Prices in an unknown currency are kept as they
+   * are, still tagged with their own currency.
+   *
+   * @throws IllegalArgumentException if the target currency is unknown
+   */
+  public VendorInventory[] normalize(VendorInventory[] inventories, String currency) {
+    if (!rates.supports(currency)) {
+      throw new IllegalArgumentException("Unknown currency: " + currency);
+    }
+    if (inventories == null) {
+      return null;
+    }
+
+    String target = currency.toUpperCase();
+    VendorInventory[] normalized = new VendorInventory[inventories.length];
+    for (int i = 0; i < inventories.length; i++) {
+      VendorInventory inventory = inventories[i];
+      if (inventory == null || inventory.getIngredients() == null) {
+        normalized[i] = inventory;
+        continue;
+      }
+
+      normalized[i] = normalize(inventory, target);
+    }
+    return normalized;
+  }
+
+  private VendorInventory normalize(VendorInventory inventory, String target) {
+    List<Ingredient> source = inventory.getIngredients();
+    List<Ingredient> ingredients = null;
+    for (int i = 0; i < source.size(); i++) {
+      Ingredient ingredient = source.get(i);
+      if (target.equals(ingredient.getCurrency())) {
+        continue;
+      }
+      float price = rates.convert(ingredient.getPrice(), ingredient.getCurrency(), target);
+      if (Float.isNaN(price)) {
+        continue;
+      }
+      if (ingredients == null) {
+        ingredients = new ArrayList<Ingredient>(source);
+      }
+      ingredients.set(i,
+          new Ingredient(ingredient.getName(), price, ingredient.getQuantity(), target));
+    }
+    return ingredients == null ? inventory
+        : new VendorInventory(inventory.getVendor(), ingredients);
+  }
+}
@@ -0,0 +1,152 @@
+package starterproject.foodfinder.services;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+
+/**
+ * Isolates foodfinder from a failing or slow downstream service. Each downstream service has a
+ * bulkhead, a bound on the calls in flight to it, and a {@link CircuitBreaker}. A call the bulkhead
+ * or the breaker refuses fails at once with a {@link RejectedExecutionException} instead of holding
+ * a request thread, so lookups served from the cache or by the other downstream service are not
+ * starved. Rejections and breaker state changes are recorded on the current span and as metrics.
+ */
+@Component
+public class DownstreamIsolation {
+  private static final Logger LOG = Logger.getLogger(DownstreamIsolation.class.getName());
+
+  private final Tracer tracer;
+  private final MeterRegistry registry;
+  private final boolean enabled;
+  private final int windowSize;
+  private final int minimumCalls;
+  private final double failureRatePercent;
+  private final long openMillis;
+  private final int halfOpenCalls;
+  private final int maxConcurrent;
+  private final long maxWaitMillis;
+  private final ConcurrentMap<String, Downstream> downstreams =
+      new ConcurrentHashMap<String, Downstream>();
+
+  @Autowired
+  public DownstreamIsolation(Tracer tracer, MeterRegistry registry,
+      @Value("${foodfinder.circuit.enabled:true}") boolean enabled,
+      @Value("${foodfinder.circuit.window-size:50}") int windowSize,
+      @Value("${foodfinder.circuit.minimum-calls:20}") int minimumCalls,
+      @Value("${foodfinder.circuit.failure-rate:50}") double failureRatePercent,
+      @Value("${foodfinder.circuit.open-ms:10000}") long openMillis,
+      @Value("${foodfinder.circuit.half-open-calls:3}") int halfOpenCalls,
+      @Value("${foodfinder.bulkhead.max-concurrent:50}") int maxConcurrent,
+      @Value("${foodfinder.bulkhead.max-wait-ms:10}") long maxWaitMillis) {
+    this.tracer = tracer;
+    this.registry = registry;
+    this.enabled = enabled;
+    this.windowSize = windowSize;
+    this.minimumCalls = minimumCalls;
+    this.failureRatePercent = failureRatePercent;
+    this.openMillis = openMillis;
+    this.halfOpenCalls = halfOpenCalls;
+    this.maxConcurrent = maxConcurrent;
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  /**
+   * Makes the call unless the downstream service's breaker is open or its bulkhead is full
+   *
+   * @throws RejectedExecutionException if the call was not made
+   */
+  public <T> T call(String downstream, Callable<T> call) throws Exception {
+    if (!enabled) {
+      return call.call();
+    }
+    Downstream isolation = downstreams.computeIfAbsent(downstream, Downstream::new);
+    Span span = tracer.getCurrentSpan();
+
+    if (!isolation.breaker.tryAcquire()) {
+      isolation.rejected(span, isolation.circuitRejected, "circuit.rejected");
+      throw new RejectedExecutionException(String.format("Circuit to %s is open", downstream));
+    }
+    if (!isolation.bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+      isolation.breaker.onIgnored();
+      isolation.rejected(span, isolation.bulkheadRejected, "bulkhead.rejected");
+      throw new RejectedExecutionException(String.format("Bulkhead to %s is full", downstream));
+    }
+
+    try {
+      T result = call.call();
+      isolation.breaker.onSuccess();
+      return result;
+    } catch (HttpClientErrorException e) {
+      // the request was at fault, not the downstream service
+      isolation.breaker.onIgnored();
+      throw e;
+    } catch (Exception e) {
+      isolation.breaker.onFailure();
+      throw e;
+    } finally {
+      isolation.bulkhead.release();
+    }
+  }
+
+  /**
+   * Returns the state of the breaker of a downstream service, CLOSED before its first call
+   */
+  public CircuitBreaker.State getState(String downstream) {
+    Downstream isolation = downstreams.get(downstream);
+    return isolation == null ? CircuitBreaker.State.CLOSED : isolation.breaker.getState();
+  }
+
+  private class Downstream {
+    private final String name;
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final Counter circuitRejected;
+    private final Counter bulkheadRejected;
+
+    private Downstream(String name) {
+      this.name = name;
+      this.breaker = new CircuitBreaker(name, windowSize, minimumCalls, failureRatePercent,
+          openMillis, halfOpenCalls, this::stateChanged);
+      this.bulkhead = new Semaphore(maxConcurrent);
+      this.circuitRejected = Counter.builder("foodfinder.circuit.rejected").tag("downstream", name)
+          .description("Calls refused by an open circuit breaker").register(registry);
+      this.bulkheadRejected = Counter.builder("foodfinder.bulkhead.rejected")
+          .tag("downstream", name).description("Calls refused by a full bulkhead")
+          .register(registry);
+      Gauge.builder("foodfinder.circuit.state", breaker, b -> b.getState().ordinal())
+          .tag("downstream", name).description("0 closed, 1 open, 2 half-open")
+          .register(registry);
+      Gauge.builder("foodfinder.bulkhead.available", bulkhead, Semaphore::availablePermits)
+          .tag("downstream", name).register(registry);
+    }
+
+    private void rejected(Span span, Counter counter, String attribute) {
+      counter.increment();
+      span.setAttribute(attribute, name);
+    }
+
+    private void stateChanged(CircuitBreaker breaker, CircuitBreaker.State from,
+        CircuitBreaker.State to) {
+      Counter.builder("foodfinder.circuit.transitions").tag("downstream", name)
+          .tag("from", from.name()).tag("to", to.name()).register(registry).increment();
+      tracer.getCurrentSpan()
+          .addEvent(String.format("Circuit to %s changed from %s to %s", name, from, to));
+      LOG.warning(String.format("Circuit to %s changed from %s to %s", name, from, to));
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package starterproject.foodfinder.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps load balancers in step with files listing their instances, one host:port per line. Lines
+ * starting with # are ignored. A file is read again whenever its modification time changes, and a
+ * file that cannot be read leaves the instances as they were.
+ */
+@Component
+public class EndpointWatcher {
+  private static final Logger LOG = Logger.getLogger(EndpointWatcher.class.getName());
+
+  private final long intervalMillis;
+  private final ScheduledExecutorService poller;
+
+  @Autowired
+  public EndpointWatcher(@Value("${foodfinder.lb.watch-interval-ms:5000}") long intervalMillis) {
+    this.intervalMillis = intervalMillis;
+    this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "endpoint-watcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Loads the instances from the file now and whenever it changes
+   *
+   * @throws IOException if the file cannot be read now
+   */
+  public void watch(Path file, LoadBalancer balancer) throws IOException {
+    AtomicReference<FileTime> loaded = new AtomicReference<FileTime>(load(file, balancer));
+    poller.scheduleWithFixedDelay(() -> {
+      try {
+        FileTime modified = Files.getLastModifiedTime(file);
+        if (!modified.equals(loaded.get())) {
+          loaded.set(load(file, balancer));
+        }
+      } catch (IOException e) {
+        LOG.warning(String.format("Error while reading %s: %s", file, e.getMessage()));
+      }
+    }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    poller.shutdownNow();
+  }
+
+  private static FileTime load(Path file, LoadBalancer balancer) throws IOException {
+    FileTime modified = Files.getLastModifiedTime(file);
+    List<String> addresses = parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    if (addresses.isEmpty()) {
+      throw new IOException("No instances listed");
+    }
+    balancer.setAddresses(addresses);
+    return modified;
+  }
+
+  static List<String> parse(List<String> lines) {
+    List<String> addresses = new ArrayList<String>();
+    for (String line : lines) {
+      String address = line.trim();
+      if (!address.isEmpty() && !address.startsWith("#")) {
+        addresses.add(address);
+      }
+    }
+    return addresses;
+  }
+}
@@ -0,0 +1,110 @@
+package starterproject.foodfinder.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+
+import starterproject.foodfinder.data.VendorInventory;
+
+/**
+ * Local file tier of the ingredient cache. Each ingredient is serialized to its own file so that
+ * cached results survive restarts. Entries older than the time to live are ignored.
+ */
+public class FileResultCache {
+  private static final Logger LOG = Logger.getLogger(FileResultCache.class.getName());
+  private static final String SUFFIX = ".cache";
+
+  private final Path directory;
+  private final long timeToLiveMillis;
+
+  public FileResultCache(Path directory, long timeToLiveMillis) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.timeToLiveMillis = timeToLiveMillis;
+  }
+
+  public VendorInventory[] get(String ingredientName) {
+    Path file = getFile(ingredientName);
+    if (!Files.exists(file)) {
+      return null;
+    }
+
+    try (InputStream in = Files.newInputStream(file);
+        ObjectInputStream objectIn = new ObjectInputStream(in)) {
+      Entry entry = (Entry) objectIn.readObject();
+      if (!ingredientName.equals(entry.ingredientName)
+          || System.currentTimeMillis() - entry.writtenAtMillis > timeToLiveMillis) {
+        return null;
+      }
+      return entry.inventories;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      LOG.warning(String.format("Ignoring unreadable cache file %s: %s", file, e.getMessage()));
+      return null;
+    }
+  }
+
+  public void put(String ingredientName, VendorInventory[] inventories) {
+    Path file = getFile(ingredientName);
+    try {
+      Path tempFile = Files.createTempFile(directory, null, null);
+      try (OutputStream out = Files.newOutputStream(tempFile);
+          ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+        objectOut.writeObject(
+            new Entry(ingredientName, System.currentTimeMillis(), inventories));
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOG.warning(String.format("Could not write cache file %s: %s", file, e.getMessage()));
+    }
+  }
+
+  public void invalidate(String ingredientName) {
+    try {
+      Files.deleteIfExists(getFile(ingredientName));
+    } catch (IOException e) {
+      LOG.warning(String.format("Could not delete cache file: %s", e.getMessage()));
+    }
+  }
+
+  public void invalidateAll() {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+    } catch (IOException e) {
+      LOG.warning(String.format("Could not clear cache directory: %s", e.getMessage()));
+    }
+  }
+
+  // file names are the hex encoded ingredient name, which is safe on every file system
+  private Path getFile(String ingredientName) {
+    StringBuilder name = new StringBuilder();
+    for (byte b : ingredientName.getBytes(StandardCharsets.UTF_8)) {
+      name.append(String.format("%02x", b));
+    }
+    return directory.resolve(name.append(SUFFIX).toString());
+  }
+
+  private static class Entry implements Serializable {
+    private static final long serialVersionUID = 2412846512034968113L;
+
+    private final String ingredientName;
+    private final long writtenAtMillis;
+    private final VendorInventory[] inventories;
+
+    Entry(String ingredientName, long writtenAtMillis, VendorInventory[] inventories) {
+      this.ingredientName = ingredientName;
+      this.writtenAtMillis = writtenAtMillis;
+      this.inventories = inventories;
+    }
+  }
+}
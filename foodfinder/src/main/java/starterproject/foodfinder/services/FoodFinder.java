@@ -1,5 +1,9 @@
 package starterproject.foodfinder.services;
 
+import java.util.List;
+import java.util.Map;
+
+import starterproject.foodfinder.data.FxRates;
 import starterproject.foodfinder.data.VendorInventory;
 
 /**
@@ -8,4 +12,16 @@ import starterproject.foodfinder.data.VendorInventory;
 public interface FoodFinder {
 
   public VendorInventory[] getIngredient(String ingredient) throws Exception;
+
+  public Map<String, VendorInventory[]> getIngredients(List<String> ingredients) throws Exception;
+
+  /**
+   * Gets at most limit vendors with at least the minimum quantity of an ingredient, best first.
+   * Ranks the result of {@link #getIngredient}, so a caching finder ranks its cached entries.
+   * Prices are compared after conversion with the exchange rates.
+   */
+  public default VendorInventory[] getTopIngredient(String ingredient, VendorRanking ranking,
+      int limit, float minQuantity, FxRates rates) throws Exception {
+    return ranking.top(getIngredient(ingredient), ingredient, limit, minQuantity, rates);
+  }
 }
@@ -1,5 +1,8 @@
 package starterproject.foodfinder.services;
 
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -23,4 +26,18 @@ public class FoodFinderService implements FoodFinder {
 
     return vendorInventories;
   }
+
+  /**
+   * Resolves every ingredient with one request to foodsupplier and one to foodvendor
+   */
+  @Override
+  public Map<String, VendorInventory[]> getIngredients(List<String> ingredientNames)
+      throws Exception {
+    Map<String, Vendor[]> vendorsByIngredient =
+        foodService.getVendorsByIngredients(ingredientNames);
+    Map<String, VendorInventory[]> vendorInventories =
+        foodService.getIngredientsFromVendors(vendorsByIngredient);
+
+    return vendorInventories;
+  }
 }
@@ -1,10 +1,22 @@
 package starterproject.foodfinder.services;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -13,58 +25,174 @@ import starterproject.foodfinder.data.Vendor;
 import starterproject.foodfinder.data.VendorInventory;
 
 /**
- * Sends requests to foodsupplier and foodvendor microservices
- *
+ * Sends requests to foodsupplier and foodvendor microservices. Requests and responses are JSON, or
+ * CBOR when foodfinder.wire.format is cbor, which is smaller and cheaper to encode for large vendor
+ * lists. Each service may run as several instances, listed in its addresses property or in a
+ * watched file. Requests are balanced across them by a {@link LoadBalancer}, and slow requests are
+ * hedged by {@link HedgedCalls}. Requests to a failing or overloaded service fail fast, see
+ * {@link DownstreamIsolation}.
  */
 @Service
 public class FoodService {
   private static final String SCHEME = "http";
+  private static final String FOOD_SUPPLIER = "foodsupplier";
+  private static final String FOOD_VENDOR = "foodvendor";
 
   private static final String FOOD_SUPPLIER_ADDRESS = "foodsupplier.address";
   private static final String FOOD_SUPPLIER_PORT = "foodsupplier.port";
+  private static final String FOOD_SUPPLIER_ADDRESSES = "foodsupplier.addresses";
+  private static final String FOOD_SUPPLIER_ADDRESSES_FILE = "foodsupplier.addresses-file";
   private static final String FOOD_SUPPLIER_PATH = "foodsupplier.path";
 
   private static final String FOOD_VENDOR_ADDRESS = "foodvendor.address";
   private static final String FOOD_VENDOR_PORT = "foodvendor.port";
+  private static final String FOOD_VENDOR_ADDRESSES = "foodvendor.addresses";
+  private static final String FOOD_VENDOR_ADDRESSES_FILE = "foodvendor.addresses-file";
   private static final String FOOD_VENDOR_PATH = "foodvendor.path";
 
+  private static final String BATCH_PATH = "/batch";
   private static final String INGREDIENT_NAME_PARAM = "ingredientName";
+  private static final String CBOR = "cbor";
+
+  private static final ParameterizedTypeReference<Map<String, Vendor[]>> VENDORS_MAP =
+      new ParameterizedTypeReference<Map<String, Vendor[]>>() {};
+  private static final ParameterizedTypeReference<Map<String, VendorInventory[]>> INVENTORIES_MAP =
+      new ParameterizedTypeReference<Map<String, VendorInventory[]>>() {};
 
   @Autowired
   private Environment env;
   @Autowired
   private RestTemplate restTemplate;
+  @Autowired
+  private HedgedCalls hedgedCalls;
+  @Autowired
+  private EndpointWatcher endpointWatcher;
+  @Autowired
+  private DownstreamIsolation isolation;
+  @Value("${foodfinder.wire.format:json}")
+  private String wireFormat;
+  @Value("${foodfinder.lb.failure-threshold:5}")
+  private int failureThreshold;
+  @Value("${foodfinder.lb.ejection-ms:30000}")
+  private long ejectionMillis;
+  @Value("${foodfinder.lb.slow-start-ms:30000}")
+  private long slowStartMillis;
+
+  private LoadBalancer supplierInstances;
+  private LoadBalancer vendorInstances;
+
+  @PostConstruct
+  public void init() throws IOException {
+    supplierInstances = getInstances(FOOD_SUPPLIER, FOOD_SUPPLIER_ADDRESSES_FILE,
+        FOOD_SUPPLIER_ADDRESSES, FOOD_SUPPLIER_ADDRESS, FOOD_SUPPLIER_PORT);
+    vendorInstances = getInstances(FOOD_VENDOR, FOOD_VENDOR_ADDRESSES_FILE,
+        FOOD_VENDOR_ADDRESSES, FOOD_VENDOR_ADDRESS, FOOD_VENDOR_PORT);
+  }
 
-  public Vendor[] getVendorsByIngredient(String ingredientName) throws Exception {
-    String url =
-        getUrl(FOOD_SUPPLIER_ADDRESS, FOOD_SUPPLIER_PORT, FOOD_SUPPLIER_PATH, ingredientName);
+  public LoadBalancer getSupplierInstances() {
+    return supplierInstances;
+  }
+
+  public LoadBalancer getVendorInstances() {
+    return vendorInstances;
+  }
 
-    ResponseEntity<Vendor[]> response =
-        restTemplate.exchange(url, HttpMethod.GET, null, Vendor[].class);
+  public Vendor[] getVendorsByIngredient(String ingredientName) throws Exception {
+    HttpEntity<Void> request = entity(null);
 
-    return response.getBody();
+    return isolation.call(FOOD_SUPPLIER, () -> hedgedCalls.call(FOOD_SUPPLIER_PATH,
+        supplierInstances, instance -> restTemplate.exchange(
+            getUrl(instance, FOOD_SUPPLIER_PATH, ingredientName), HttpMethod.GET, request,
+            Vendor[].class).getBody()));
   }
 
   public VendorInventory[] getIngredientFromVendors(Vendor[] vendors, String ingredientName)
       throws Exception {
-    String url = getUrl(FOOD_VENDOR_ADDRESS, FOOD_VENDOR_PORT, FOOD_VENDOR_PATH, ingredientName);
+    HttpEntity<Vendor[]> request = entity(vendors);
+
+    return isolation.call(FOOD_VENDOR, () -> hedgedCalls.call(FOOD_VENDOR_PATH,
+        vendorInstances, instance -> restTemplate.exchange(
+            getUrl(instance, FOOD_VENDOR_PATH, ingredientName), HttpMethod.POST, request,
+            VendorInventory[].class).getBody()));
+  }
+
+  /**
+   * Gets the vendors of several ingredients from foodsupplier in one request
+   */
+  public Map<String, Vendor[]> getVendorsByIngredients(List<String> ingredientNames)
+      throws Exception {
+    HttpEntity<List<String>> request = entity(ingredientNames);
 
-    HttpEntity<Vendor[]> request = new HttpEntity<>(vendors);
+    return isolation.call(FOOD_SUPPLIER, () -> hedgedCalls.call(FOOD_SUPPLIER_PATH + BATCH_PATH,
+        supplierInstances, instance -> restTemplate.exchange(
+            getBatchUrl(instance, FOOD_SUPPLIER_PATH), HttpMethod.POST, request, VENDORS_MAP)
+            .getBody()));
+  }
 
-    ResponseEntity<VendorInventory[]> response =
-        restTemplate.exchange(url, HttpMethod.POST, request, VendorInventory[].class);
+  /**
+   * Gets the inventories of several ingredients, each from its own vendors, from foodvendor in one
+   * request
+   */
+  public Map<String, VendorInventory[]> getIngredientsFromVendors(
+      Map<String, Vendor[]> vendorsByIngredient) throws Exception {
+    HttpEntity<Map<String, Vendor[]>> request = entity(vendorsByIngredient);
+
+    return isolation.call(FOOD_VENDOR, () -> hedgedCalls.call(FOOD_VENDOR_PATH + BATCH_PATH,
+        vendorInstances, instance -> restTemplate.exchange(
+            getBatchUrl(instance, FOOD_VENDOR_PATH), HttpMethod.POST, request, INVENTORIES_MAP)
+            .getBody()));
+  }
+
+  // names the wire format explicitly, RestTemplate would otherwise accept any format it can read
+  private <T> HttpEntity<T> entity(T body) {
+    MediaType mediaType =
+        CBOR.equalsIgnoreCase(wireFormat) ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+    HttpHeaders headers = new HttpHeaders();
+    headers.setAccept(Collections.singletonList(mediaType));
+    if (body != null) {
+      headers.setContentType(mediaType);
+    }
+    return new HttpEntity<>(body, headers);
+  }
 
-    return response.getBody();
+  // instances from the watched file, else the addresses, else the single address and port
+  private LoadBalancer getInstances(String name, String file_name, String addresses_name,
+      String service_type, String port_name) throws IOException {
+    LoadBalancer balancer =
+        new LoadBalancer(name, failureThreshold, ejectionMillis, slowStartMillis);
+    String file = env.getProperty(file_name, "");
+    if (!file.isEmpty()) {
+      endpointWatcher.watch(Paths.get(file), balancer);
+      return balancer;
+    }
+
+    List<String> instances = new ArrayList<String>();
+    for (String instance : env.getProperty(addresses_name, "").split(",")) {
+      if (!instance.trim().isEmpty()) {
+        instances.add(instance.trim());
+      }
+    }
+    if (instances.isEmpty()) {
+      instances.add(env.getProperty(service_type) + ":" + env.getProperty(port_name));
+    }
+    balancer.setAddresses(instances);
+    return balancer;
+  }
+
+  private String getBatchUrl(String instance, String path_name) {
+    String path = env.getProperty(path_name);
+
+    UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(SCHEME + "://" + instance)
+        .path(path).path(BATCH_PATH);
+
+    return builder.toUriString();
   }
 
-  private String getUrl(String service_type, String port_name, String path_name,
-      String ingredientName) {
-    String ipAddress = env.getProperty(service_type);
-    String port = env.getProperty(port_name);
+  private String getUrl(String instance, String path_name, String ingredientName) {
     String path = env.getProperty(path_name);
 
-    UriComponentsBuilder builder = UriComponentsBuilder.newInstance().scheme(SCHEME).host(ipAddress)
-        .path(path).port(port).queryParam(INGREDIENT_NAME_PARAM, ingredientName);
+    UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(SCHEME + "://" + instance)
+        .path(path).queryParam(INGREDIENT_NAME_PARAM, ingredientName);
 
     return builder.toUriString();
   }
@@ -0,0 +1,44 @@
+package starterproject.foodfinder.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits hedged requests to a percentage of all requests. Every request earns a fraction of a
+ * token and every hedge spends a whole one, so a slow downstream cannot double the load on the
+ * others. Unspent tokens accumulate up to a small burst.
+ */
+public class HedgeBudget {
+  private static final long TOKEN = 1000;
+
+  private final long earnedPerRequest;
+  private final long maxTokens;
+  private final AtomicLong tokens = new AtomicLong();
+
+  /**
+   * @param percent the share of requests that may be hedged
+   * @param burst the number of hedges that can be saved up
+   */
+  public HedgeBudget(double percent, int burst) {
+    this.earnedPerRequest = Math.round(percent * TOKEN / 100);
+    this.maxTokens = burst * TOKEN;
+  }
+
+  public void onRequest() {
+    tokens.accumulateAndGet(earnedPerRequest, (current, earned) -> Math.min(current + earned,
+        maxTokens));
+  }
+
+  /**
+   * Spends a token if there is one
+   */
+  public boolean tryHedge() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+}
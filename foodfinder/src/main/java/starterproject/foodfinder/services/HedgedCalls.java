@@ -0,0 +1,171 @@
+package starterproject.foodfinder.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+
+/**
+ * Calls an instance of a downstream endpoint chosen by its {@link LoadBalancer} and hedges slow
+ * calls. A call still running after the endpoint's recent p95 latency is duplicated to another
+ * instance, if the hedge budget allows, and the first successful reply wins. Every call is bounded
+ * by a deadline, and hedges are recorded on the current span.
+ */
+@Component
+public class HedgedCalls {
+  private static final double HEDGE_PERCENTILE = 0.95;
+  private static final long HISTOGRAM_WINDOW = 10000;
+
+  private final Tracer tracer;
+  private final Executor executor;
+  private final boolean enabled;
+  private final long minSamples;
+  private final long minDelayMicros;
+  private final long deadlineMillis;
+  private final HedgeBudget budget;
+  private final ConcurrentMap<String, LatencyHistogram> latencies =
+      new ConcurrentHashMap<String, LatencyHistogram>();
+
+  @Autowired
+  public HedgedCalls(Tracer tracer, @Qualifier("hedgeExecutor") Executor executor,
+      @Value("${foodfinder.hedge.enabled:true}") boolean enabled,
+      @Value("${foodfinder.hedge.budget-percent:5}") double budgetPercent,
+      @Value("${foodfinder.hedge.burst:10}") int burst,
+      @Value("${foodfinder.hedge.min-samples:100}") long minSamples,
+      @Value("${foodfinder.hedge.min-delay-ms:1}") long minDelayMillis,
+      @Value("${foodfinder.hedge.deadline-ms:5000}") long deadlineMillis) {
+    this.tracer = tracer;
+    this.executor = executor;
+    this.enabled = enabled;
+    this.minSamples = minSamples;
+    this.minDelayMicros = TimeUnit.MILLISECONDS.toMicros(minDelayMillis);
+    this.deadlineMillis = deadlineMillis;
+    this.budget = new HedgeBudget(budgetPercent, burst);
+  }
+
+  /**
+   * Sends the request to one of the instances, and to another one as well if it is slow
+   *
+   * @param endpoint the name latencies are tracked under
+   * @throws TimeoutException if no instance replied within the deadline
+   */
+  public <T> T call(String endpoint, LoadBalancer balancer, Request<T> request)
+      throws Exception {
+    Span span = tracer.getCurrentSpan();
+    long start = System.nanoTime();
+    LatencyHistogram latency = latencies.computeIfAbsent(endpoint,
+        name -> new LatencyHistogram(HISTOGRAM_WINDOW, minSamples));
+    budget.onRequest();
+
+    LoadBalancer.Endpoint first = balancer.choose(null);
+    if (first == null) {
+      throw new IllegalStateException(String.format("No instances of %s", endpoint));
+    }
+    CompletableFuture<T> primary = submit(span, latency, request, first);
+    long hedgeDelayMicros = latency.percentile(HEDGE_PERCENTILE);
+    if (!enabled || balancer.size() < 2 || hedgeDelayMicros < 0) {
+      return await(primary, start);
+    }
+
+    hedgeDelayMicros = Math.max(hedgeDelayMicros, minDelayMicros);
+    try {
+      return primary.get(hedgeDelayMicros, TimeUnit.MICROSECONDS);
+    } catch (TimeoutException e) {
+      // slower than usual, hedge below
+    } catch (ExecutionException e) {
+      throw unwrap(e);
+    }
+
+    LoadBalancer.Endpoint hedgeInstance = balancer.choose(first);
+    if (hedgeInstance == null || !budget.tryHedge()) {
+      span.setAttribute("hedge.skipped", endpoint);
+      return await(primary, start);
+    }
+    span.addEvent(String.format("Hedged %s to %s after %d us", endpoint, hedgeInstance,
+        hedgeDelayMicros));
+    span.setAttribute("hedge.endpoint", endpoint);
+    CompletableFuture<T> hedge = submit(span, latency, request, hedgeInstance);
+
+    CompletableFuture<T> winner = new CompletableFuture<T>();
+    AtomicInteger failures = new AtomicInteger();
+    primary.whenComplete((value, error) -> {
+      if (error == null) {
+        winner.complete(value);
+      } else if (failures.incrementAndGet() == 2) {
+        winner.completeExceptionally(error);
+      }
+    });
+    hedge.whenComplete((value, error) -> {
+      if (error == null) {
+        if (winner.complete(value)) {
+          span.setAttribute("hedge.won", true);
+        }
+      } else if (failures.incrementAndGet() == 2) {
+        winner.completeExceptionally(error);
+      }
+    });
+    return await(winner, start);
+  }
+
+  // a 4xx reply still shows the instance is healthy
+  private <T> CompletableFuture<T> submit(Span span, LatencyHistogram latency, Request<T> request,
+      LoadBalancer.Endpoint instance) {
+    instance.begin();
+    return CompletableFuture.supplyAsync(() -> {
+      long start = System.nanoTime();
+      try (Scope scope = tracer.withSpan(span)) {
+        T value = request.execute(instance.getAddress());
+        latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        instance.end(true);
+        return value;
+      } catch (RuntimeException e) {
+        instance.end(e instanceof HttpClientErrorException);
+        throw e;
+      } catch (Exception e) {
+        instance.end(false);
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  private <T> T await(CompletableFuture<T> future, long start) throws Exception {
+    long remainingNanos =
+        TimeUnit.MILLISECONDS.toNanos(deadlineMillis) - (System.nanoTime() - start);
+    try {
+      return future.get(remainingNanos, TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  private static Exception unwrap(ExecutionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause instanceof Exception ? (Exception) cause : e;
+  }
+
+  /**
+   * A request to one instance, given as host:port
+   */
+  @FunctionalInterface
+  public interface Request<T> {
+    T execute(String instance) throws Exception;
+  }
+}
@@ -0,0 +1,100 @@
+package starterproject.foodfinder.services;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Streaming latency histogram with logarithmic buckets, eight per power of two, so any percentile
+ * is known to within 12.5%. Recording is lock-free. Once the window is full every bucket is halved,
+ * so percentiles follow recent latencies rather than the whole history.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // values below this get one bucket each
+  private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+  private static final int LINEAR_BITS = 4;
+  private static final int BUCKETS = LINEAR_BUCKETS + (64 - LINEAR_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicBoolean decaying = new AtomicBoolean();
+  private final long window;
+  private final long minSamples;
+
+  /**
+   * @param window the number of samples after which older samples count half
+   * @param minSamples the number of samples below which no percentile is reported
+   */
+  public LatencyHistogram(long window, long minSamples) {
+    this.window = window;
+    this.minSamples = minSamples;
+  }
+
+  public void record(long micros) {
+    counts.incrementAndGet(bucket(Math.max(micros, 0)));
+    if (total.incrementAndGet() >= window && decaying.compareAndSet(false, true)) {
+      try {
+        long remaining = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+          long count = counts.get(bucket);
+          if (count > 0) {
+            remaining += counts.addAndGet(bucket, -(count / 2));
+          }
+        }
+        total.set(remaining);
+      } finally {
+        decaying.set(false);
+      }
+    }
+  }
+
+  /**
+   * Returns the upper bound of the bucket holding the given percentile, or -1 until enough samples
+   * have been recorded
+   */
+  public long percentile(double percentile) {
+    long[] snapshot = new long[BUCKETS];
+    long count = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      snapshot[bucket] = counts.get(bucket);
+      count += snapshot[bucket];
+    }
+    if (count < minSamples || count == 0) {
+      return -1;
+    }
+
+    long rank = (long) Math.ceil(percentile * count);
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += snapshot[bucket];
+      if (seen >= rank) {
+        return upperBound(bucket);
+      }
+    }
+    return upperBound(BUCKETS - 1);
+  }
+
+  static int bucket(long value) {
+    if (value < LINEAR_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+  }
+
+  static long upperBound(int bucket) {
+    if (bucket < LINEAR_BUCKETS) {
+      return bucket;
+    }
+    int exponent = LINEAR_BITS + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+    if (exponent == 63) {
+      return Long.MAX_VALUE;
+    }
+    int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    return (SUB_BUCKETS + subBucket) * width + width - 1;
+  }
+}
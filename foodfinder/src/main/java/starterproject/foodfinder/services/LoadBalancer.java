@@ -0,0 +1,193 @@
+package starterproject.foodfinder.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Spreads requests over the instances of one downstream service. Each request goes to the less
+ * loaded of two randomly chosen instances, where load is the number of outstanding requests. An
+ * instance that fails several requests in a row is ejected for a while, and an instance that is new
+ * or back from ejection takes a growing share of requests over the slow-start period.
+ */
+public class LoadBalancer {
+  private static final Logger LOG = Logger.getLogger(LoadBalancer.class.getName());
+  // share of its load a fresh instance is given at the start of slow start
+  private static final double MIN_WEIGHT = 0.1;
+  private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+  private final String name;
+  private final int failureThreshold;
+  private final long ejectionNanos;
+  private final long slowStartNanos;
+  private volatile List<Endpoint> endpoints = Collections.emptyList();
+
+  /**
+   * @param failureThreshold the number of consecutive failures after which an instance is ejected
+   * @param ejectionMillis how long an instance is ejected the first time, longer on each later one
+   * @param slowStartMillis how long a new instance takes to reach its full share of requests
+   */
+  public LoadBalancer(String name, int failureThreshold, long ejectionMillis,
+      long slowStartMillis) {
+    this.name = name;
+    this.failureThreshold = failureThreshold;
+    this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMillis);
+    this.slowStartNanos = TimeUnit.MILLISECONDS.toNanos(slowStartMillis);
+  }
+
+  /**
+   * Replaces the instances. Instances that were already known keep their state, the others start
+   * slow unless they are the first instances.
+   *
+   * @param addresses the host:port of every instance
+   */
+  public synchronized void setAddresses(List<String> addresses) {
+    Map<String, Endpoint> known = new LinkedHashMap<String, Endpoint>();
+    for (Endpoint endpoint : endpoints) {
+      known.put(endpoint.address, endpoint);
+    }
+    long now = System.nanoTime();
+    long warmingSince = known.isEmpty() ? now - slowStartNanos : now;
+    List<Endpoint> updated = new ArrayList<Endpoint>();
+    for (String address : addresses) {
+      Endpoint endpoint = known.get(address);
+      updated.add(endpoint != null ? endpoint : new Endpoint(address, now, warmingSince));
+    }
+    endpoints = Collections.unmodifiableList(updated);
+    LOG.info(String.format("%s instances: %s", name, addresses));
+  }
+
+  public int size() {
+    return endpoints.size();
+  }
+
+  public List<Endpoint> getEndpoints() {
+    return endpoints;
+  }
+
+  /**
+   * Chooses an instance for the next request. Ejected instances are only chosen when every instance
+   * is ejected.
+   *
+   * @param exclude an instance not to choose, or null
+   * @return the instance, or null if there is no other instance
+   */
+  public Endpoint choose(Endpoint exclude) {
+    List<Endpoint> all = endpoints;
+    long now = System.nanoTime();
+    List<Endpoint> candidates = new ArrayList<Endpoint>(all.size());
+    for (Endpoint endpoint : all) {
+      if (endpoint != exclude && !endpoint.isEjected(now)) {
+        candidates.add(endpoint);
+      }
+    }
+    if (candidates.isEmpty()) {
+      for (Endpoint endpoint : all) {
+        if (endpoint != exclude) {
+          candidates.add(endpoint);
+        }
+      }
+    }
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    if (candidates.size() == 1) {
+      return candidates.get(0);
+    }
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(candidates.size());
+    int second = random.nextInt(candidates.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    Endpoint a = candidates.get(first);
+    Endpoint b = candidates.get(second);
+    return a.load(now) <= b.load(now) ? a : b;
+  }
+
+  /**
+   * One instance of the downstream service
+   */
+  public class Endpoint {
+    private final String address;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private int consecutiveFailures;
+    private int ejections;
+    private volatile long ejectedUntil;
+    private volatile long warmingSince;
+
+    private Endpoint(String address, long now, long warmingSince) {
+      this.address = address;
+      this.ejectedUntil = now;
+      this.warmingSince = warmingSince;
+    }
+
+    public String getAddress() {
+      return address;
+    }
+
+    public int getOutstanding() {
+      return outstanding.get();
+    }
+
+    public boolean isEjected() {
+      return isEjected(System.nanoTime());
+    }
+
+    /**
+     * Counts a request sent to this instance
+     */
+    public void begin() {
+      outstanding.incrementAndGet();
+    }
+
+    /**
+     * Counts the end of a request begun with {@link #begin}
+     *
+     * @param success false if the instance failed to answer
+     */
+    public void end(boolean success) {
+      outstanding.decrementAndGet();
+      synchronized (this) {
+        if (success) {
+          consecutiveFailures = 0;
+          ejections = 0;
+        } else if (++consecutiveFailures >= failureThreshold) {
+          consecutiveFailures = 0;
+          ejections = Math.min(ejections + 1, MAX_EJECTION_MULTIPLIER);
+          long now = System.nanoTime();
+          ejectedUntil = now + ejectionNanos * ejections;
+          warmingSince = ejectedUntil;
+          LOG.warning(String.format("Ejected %s instance %s for %d ms", name, address,
+              TimeUnit.NANOSECONDS.toMillis(ejectionNanos * ejections)));
+        }
+      }
+    }
+
+    private boolean isEjected(long now) {
+      return now - ejectedUntil < 0;
+    }
+
+    // outstanding requests, scaled up while the instance is warming
+    private double load(long now) {
+      double weight = 1;
+      long warming = now - warmingSince;
+      if (warming < slowStartNanos) {
+        weight = Math.max(MIN_WEIGHT, (double) Math.max(warming, 0) / slowStartNanos);
+      }
+      return (outstanding.get() + 1) / weight;
+    }
+
+    @Override
+    public String toString() {
+      return address;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package starterproject.foodfinder.services;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Flux;
+import starterproject.foodfinder.data.Vendor;
+import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.telemetry.WebClientTraceFilter;
+
+/**
+ * Finds the inventories of an ingredient like {@link FoodFinderService}, but without holding a
+ * thread while either downstream call is in flight. The inventories are decoded from foodvendor's
+ * reply and emitted one at a time as its bytes arrive. Instances are chosen by the same load
+ * balancers as {@link FoodService}. The caller subscribes with the current span in the Reactor
+ * context, see {@link WebClientTraceFilter#withSpan}.
+ */
+@Service
+public class ReactiveFoodFinderService {
+  private static final String SCHEME = "http";
+  private static final String INGREDIENT_NAME_PARAM = "ingredientName";
+
+  private final WebClient webClient;
+  private final LoadBalancer supplierInstances;
+  private final String supplierPath;
+  private final LoadBalancer vendorInstances;
+  private final String vendorPath;
+  private final Duration timeout;
+
+  @Autowired
+  public ReactiveFoodFinderService(WebClient.Builder webClientBuilder,
+      WebClientTraceFilter webClientTraceFilter, FoodService foodService,
+      @Value("${foodsupplier.path}") String supplierPath,
+      @Value("${foodvendor.path}") String vendorPath,
+      @Value("${foodfinder.reactive.timeout-ms:5000}") long timeoutMillis) {
+    this(webClientBuilder.filter(webClientTraceFilter).build(), foodService.getSupplierInstances(),
+        supplierPath, foodService.getVendorInstances(), vendorPath, timeoutMillis);
+  }
+
+  public ReactiveFoodFinderService(WebClient webClient, LoadBalancer supplierInstances,
+      String supplierPath, LoadBalancer vendorInstances, String vendorPath, long timeoutMillis) {
+    this.webClient = webClient;
+    this.supplierInstances = supplierInstances;
+    this.supplierPath = supplierPath;
+    this.vendorInstances = vendorInstances;
+    this.vendorPath = vendorPath;
+    this.timeout = Duration.ofMillis(timeoutMillis);
+  }
+
+  /**
+   * Emits the inventories of the ingredient as foodvendor returns them. Both calls together are
+   * bounded by the timeout.
+   */
+  public Flux<VendorInventory> getIngredient(String ingredientName) {
+    return getVendorsByIngredient(ingredientName).collectList()
+        .flatMapMany(vendors -> getIngredientFromVendors(vendors, ingredientName))
+        .timeout(timeout);
+  }
+
+  public Flux<Vendor> getVendorsByIngredient(String ingredientName) {
+    return balanced(supplierInstances, instance -> webClient.get()
+        .uri(getUrl(instance, supplierPath, ingredientName)).accept(MediaType.APPLICATION_JSON)
+        .retrieve().bodyToFlux(Vendor.class));
+  }
+
+  public Flux<VendorInventory> getIngredientFromVendors(List<Vendor> vendors,
+      String ingredientName) {
+    return balanced(vendorInstances, instance -> webClient.post()
+        .uri(getUrl(instance, vendorPath, ingredientName)).contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON).bodyValue(vendors).retrieve()
+        .bodyToFlux(VendorInventory.class));
+  }
+
+  // sends each subscription to an instance chosen then, and reports how it went to the balancer
+  private static <T> Flux<T> balanced(LoadBalancer balancer, Function<String, Flux<T>> request) {
+    return Flux.defer(() -> {
+      LoadBalancer.Endpoint endpoint = balancer.choose(null);
+      if (endpoint == null) {
+        return Flux.error(new IllegalStateException("No instances to call"));
+      }
+      endpoint.begin();
+      AtomicBoolean failed = new AtomicBoolean();
+      return request.apply(endpoint.getAddress())
+          // a 4xx reply still shows the instance is healthy
+          .doOnError(e -> failed.set(!(e instanceof WebClientResponseException
+              && ((WebClientResponseException) e).getStatusCode().is4xxClientError())))
+          .doFinally(signal -> endpoint.end(!failed.get()));
+    });
+  }
+
+  // a URI rather than a string, which WebClient would encode again as a template
+  private static URI getUrl(String instance, String path, String ingredientName) {
+    UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(SCHEME + "://" + instance)
+        .path(path).queryParam(INGREDIENT_NAME_PARAM, ingredientName);
+
+    return builder.encode().build().toUri();
+  }
+}
@@ -0,0 +1,175 @@
+package starterproject.foodfinder.services;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.grpc.Channel;
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import starterproject.foodfinder.data.Ingredient;
+import starterproject.foodfinder.data.Vendor;
+import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.telemetry.GrpcTraceInterceptor;
+import starterproject.foodsupplier.proto.FoodSupplierGrpc;
+import starterproject.foodsupplier.proto.IngredientQuery;
+import starterproject.foodsupplier.proto.VendorRecord;
+import starterproject.foodvendor.proto.FoodVendorGrpc;
+import starterproject.foodvendor.proto.InventoryRecord;
+import starterproject.foodvendor.proto.VendorQuery;
+
+/**
+ * Finds the inventories of an ingredient over gRPC streams. Each vendor streamed by foodsupplier is
+ * forwarded to foodvendor as soon as it arrives, and each inventory streamed back is handed to the
+ * caller as soon as it arrives, so the first results are available long before the vendor list is
+ * complete.
+ */
+@Service
+public class StreamingFoodFinder {
+  private final FoodSupplierGrpc.FoodSupplierStub supplierStub;
+  private final FoodVendorGrpc.FoodVendorStub vendorStub;
+  private final long timeoutMillis;
+  private final ManagedChannel[] channels;
+
+  @Autowired
+  public StreamingFoodFinder(GrpcTraceInterceptor grpcTraceInterceptor,
+      @Value("${foodsupplier.address}") String supplierAddress,
+      @Value("${foodsupplier.grpc.port:9081}") int supplierPort,
+      @Value("${foodvendor.address}") String vendorAddress,
+      @Value("${foodvendor.grpc.port:9082}") int vendorPort,
+      @Value("${foodfinder.grpc.timeout-ms:5000}") long timeoutMillis) {
+    this(ManagedChannelBuilder.forAddress(supplierAddress, supplierPort).usePlaintext()
+        .intercept(grpcTraceInterceptor).build(),
+        ManagedChannelBuilder.forAddress(vendorAddress, vendorPort).usePlaintext()
+            .intercept(grpcTraceInterceptor).build(),
+        timeoutMillis);
+  }
+
+  public StreamingFoodFinder(Channel supplierChannel, Channel vendorChannel, long timeoutMillis) {
+    this.supplierStub = FoodSupplierGrpc.newStub(supplierChannel);
+    this.vendorStub = FoodVendorGrpc.newStub(vendorChannel);
+    this.timeoutMillis = timeoutMillis;
+    this.channels = supplierChannel instanceof ManagedChannel
+        ? new ManagedChannel[] {(ManagedChannel) supplierChannel, (ManagedChannel) vendorChannel}
+        : new ManagedChannel[0];
+  }
+
+  /**
+   * Starts both streams on the calling thread, so they carry its current span, and returns the
+   * inventories as they arrive. Both streams are bounded by the gRPC timeout.
+   */
+  public InventoryStream streamIngredient(String ingredientName) {
+    Context.CancellableContext context = Context.current().withCancellation();
+    InventoryStream inventories = new InventoryStream(context);
+
+    Context previous = context.attach();
+    try {
+      StreamObserver<VendorQuery> vendorQueries = vendorStub
+          .withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+          .getIngredientFromVendors(inventories);
+
+      IngredientQuery query =
+          IngredientQuery.newBuilder().setIngredientName(ingredientName).build();
+      supplierStub.withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+          .getVendorsByIngredient(query, new StreamObserver<VendorRecord>() {
+            @Override
+            public void onNext(VendorRecord vendor) {
+              vendorQueries.onNext(VendorQuery.newBuilder().setVendorName(vendor.getName())
+                  .setIngredientName(ingredientName).build());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+              vendorQueries.onError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+              vendorQueries.onCompleted();
+            }
+          });
+    } finally {
+      context.detach(previous);
+    }
+    return inventories;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    for (ManagedChannel channel : channels) {
+      channel.shutdown();
+    }
+  }
+
+  /**
+   * The inventories of one lookup in arrival order. Closing the stream cancels both calls if they
+   * are still running.
+   */
+  public static class InventoryStream implements StreamObserver<InventoryRecord>, AutoCloseable {
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> arrived = new LinkedBlockingQueue<Object>();
+    private final Context.CancellableContext context;
+
+    private InventoryStream(Context.CancellableContext context) {
+      this.context = context;
+    }
+
+    /**
+     * Waits for the next inventory
+     *
+     * @return the inventory, or null once every inventory has been returned
+     * @throws ExecutionException if either stream failed or timed out
+     */
+    public VendorInventory next() throws InterruptedException, ExecutionException {
+      Object next = arrived.take();
+      if (next == END || next instanceof Throwable) {
+        // leave the end in place for later calls
+        arrived.add(next);
+        if (next == END) {
+          return null;
+        }
+        throw new ExecutionException((Throwable) next);
+      }
+      return (VendorInventory) next;
+    }
+
+    /**
+     * Returns true if {@link #next} will not block
+     */
+    public boolean ready() {
+      return !arrived.isEmpty();
+    }
+
+    @Override
+    public void onNext(InventoryRecord record) {
+      Ingredient ingredient = new Ingredient(record.getIngredientName(), record.getPrice(),
+          record.getQuantity(), record.getCurrency());
+      arrived.add(new VendorInventory(new Vendor(record.getVendorName()), ingredient));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      arrived.add(t);
+    }
+
+    @Override
+    public void onCompleted() {
+      arrived.add(END);
+    }
+
+    @Override
+    public void close() {
+      context.cancel(null);
+    }
+  }
+}
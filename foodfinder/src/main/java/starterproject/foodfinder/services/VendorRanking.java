@@ -0,0 +1,129 @@
+package starterproject.foodfinder.services;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import starterproject.foodfinder.data.FxRates;
+import starterproject.foodfinder.data.Ingredient;
+import starterproject.foodfinder.data.VendorInventory;
+
+/**
+ * Orders the vendors of an ingredient from best to worst. Prices are compared in the base currency
+ * of the exchange rates, so vendors quoting in different currencies rank correctly. Ties are broken
+ * by vendor name so a ranking is stable across requests.
+ */
+public enum VendorRanking {
+  /**
+   * Lowest price first, prices in an unknown currency last
+   */
+  PRICE {
+    @Override
+    double score(Ingredient ingredient, FxRates rates) {
+      return rates.toBase(ingredient.getPrice(), ingredient.getCurrency());
+    }
+  },
+  /**
+   * Lowest price per unit of quantity first, vendors without stock last
+   */
+  UNIT_PRICE {
+    @Override
+    double score(Ingredient ingredient, FxRates rates) {
+      return ingredient.getQuantity() > 0
+          ? rates.toBase(ingredient.getPrice(), ingredient.getCurrency()) / ingredient.getQuantity()
+          : Double.POSITIVE_INFINITY;
+    }
+  },
+  /**
+   * Largest quantity first
+   */
+  QUANTITY {
+    @Override
+    double score(Ingredient ingredient, FxRates rates) {
+      return -ingredient.getQuantity();
+    }
+  };
+
+  private static final Comparator<Ranked> BEST =
+      Comparator.comparingDouble((Ranked ranked) -> ranked.score)
+          .thenComparing(ranked -> ranked.vendorName);
+
+  /**
+   * Lower is better, NaN is ranked last
+   */
+  abstract double score(Ingredient ingredient, FxRates rates);
+
+  /**
+   * Returns the best vendors of the ingredient with at least the minimum quantity. Only the limit
+   * best entries are kept on a bounded heap while scanning, so the cost is O(n log limit), entries
+   * that do not make the cut are not allocated, and the given array is left untouched.
+   */
+  public VendorInventory[] top(VendorInventory[] inventories, String ingredientName, int limit,
+      float minQuantity, FxRates rates) {
+    if (inventories == null || limit <= 0) {
+      return new VendorInventory[0];
+    }
+
+    PriorityQueue<Ranked> heap =
+        new PriorityQueue<Ranked>(Math.min(limit, inventories.length) + 1, BEST.reversed());
+    for (VendorInventory inventory : inventories) {
+      Ingredient ingredient = find(inventory, ingredientName);
+      if (ingredient == null || ingredient.getQuantity() < minQuantity) {
+        continue;
+      }
+      double score = score(ingredient, rates);
+      if (Double.isNaN(score)) {
+        score = Double.POSITIVE_INFINITY;
+      }
+      if (heap.size() < limit) {
+        heap.add(new Ranked(inventory, score));
+      } else if (isBetter(score, vendorName(inventory), heap.peek())) {
+        heap.poll();
+        heap.add(new Ranked(inventory, score));
+      }
+    }
+
+    Ranked[] ranked = heap.toArray(new Ranked[0]);
+    Arrays.sort(ranked, BEST);
+    VendorInventory[] top = new VendorInventory[ranked.length];
+    for (int i = 0; i < ranked.length; i++) {
+      top[i] = ranked[i].inventory;
+    }
+    return top;
+  }
+
+  private static boolean isBetter(double score, String vendorName, Ranked worst) {
+    int order = Double.compare(score, worst.score);
+    return order < 0 || order == 0 && vendorName.compareTo(worst.vendorName) < 0;
+  }
+
+  private static Ingredient find(VendorInventory inventory, String ingredientName) {
+    if (inventory == null || inventory.getIngredients() == null) {
+      return null;
+    }
+    for (Ingredient ingredient : inventory.getIngredients()) {
+      if (ingredientName.equals(ingredient.getName())) {
+        return ingredient;
+      }
+    }
+    return null;
+  }
+
+  private static String vendorName(VendorInventory inventory) {
+    return inventory.getVendor() == null || inventory.getVendor().getName() == null
+        ? ""
+        : inventory.getVendor().getName();
+  }
+
+  private static class Ranked {
+    private final VendorInventory inventory;
+    private final double score;
+    private final String vendorName;
+
+    private Ranked(VendorInventory inventory, double score) {
+      this.inventory = inventory;
+      this.score = score;
+      this.vendorName = vendorName(inventory);
+    }
+  }
+}
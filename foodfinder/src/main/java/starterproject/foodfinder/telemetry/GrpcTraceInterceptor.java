@@ -0,0 +1,50 @@
+package starterproject.foodfinder.telemetry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.opentelemetry.context.propagation.HttpTextFormat;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+
+/**
+ * The gRPC counterpart of {@link RestTemplateHeaderModifierInterceptor}. Injects the context of the
+ * span that is current when a call is created into the call metadata, even if the call is started
+ * from another thread.
+ */
+@Component
+public class GrpcTraceInterceptor implements ClientInterceptor {
+
+  private static final HttpTextFormat.Setter<Metadata> METADATA_SETTER =
+      new HttpTextFormat.Setter<Metadata>() {
+        @Override
+        public void put(Metadata metadata, String key, String value) {
+          metadata.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value);
+        }
+      };
+
+  @Autowired
+  private Tracer tracer;
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+    Span currentSpan = tracer.getCurrentSpan();
+
+    return new SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+      @Override
+      public void start(Listener<RespT> responseListener, Metadata headers) {
+        currentSpan.addEvent(String.format("gRPC call %s", method.getFullMethodName()));
+        tracer.getHttpTextFormat().inject(currentSpan.getContext(), headers, METADATA_SETTER);
+        super.start(responseListener, headers);
+      }
+    };
+  }
+}
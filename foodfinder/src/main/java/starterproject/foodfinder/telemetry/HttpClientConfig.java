@@ -0,0 +1,101 @@
+package starterproject.foodfinder.telemetry;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Selects the HTTP client used for requests to foodsupplier and foodvendor with
+ * foodfinder.http.client:
+ * <ul>
+ * <li>pooled (default): Apache HttpClient with a bounded per-route keep-alive pool</li>
+ * <li>h2c: OkHttp speaking cleartext HTTP/2 with prior knowledge, one multiplexed connection per
+ * route</li>
+ * <li>simple: a new HttpURLConnection per request</li>
+ * </ul>
+ */
+@Configuration
+public class HttpClientConfig {
+
+  @Value("${foodfinder.http.connect-timeout-ms:1000}")
+  int connectTimeoutMillis;
+  @Value("${foodfinder.http.read-timeout-ms:5000}")
+  int readTimeoutMillis;
+  @Value("${foodfinder.http.keep-alive-ms:30000}")
+  long keepAliveMillis;
+
+  @Bean
+  @ConditionalOnProperty(name = "foodfinder.http.client", havingValue = "pooled",
+      matchIfMissing = true)
+  public CloseableHttpClient pooledHttpClient(MeterRegistry registry,
+      @Value("${foodfinder.http.max-total:200}") int maxTotal,
+      @Value("${foodfinder.http.max-per-route:50}") int maxPerRoute,
+      @Value("${foodfinder.http.pool-timeout-ms:1000}") int poolTimeoutMillis) {
+    InstrumentedConnectionManager connectionManager =
+        new InstrumentedConnectionManager(registry, keepAliveMillis, TimeUnit.MILLISECONDS);
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    connectionManager.setValidateAfterInactivity(1000);
+
+    RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(connectTimeoutMillis)
+        .setSocketTimeout(readTimeoutMillis).setConnectionRequestTimeout(poolTimeoutMillis).build();
+
+    return HttpClients.custom().setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy((response, context) -> keepAliveMillis)
+        .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS).build();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "foodfinder.http.client", havingValue = "pooled",
+      matchIfMissing = true)
+  public ClientHttpRequestFactory pooledRequestFactory(CloseableHttpClient pooledHttpClient) {
+    return new HttpComponentsClientHttpRequestFactory(pooledHttpClient);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "foodfinder.http.client", havingValue = "h2c")
+  public ClientHttpRequestFactory h2cRequestFactory(MeterRegistry registry,
+      @Value("${foodfinder.http.max-idle:5}") int maxIdle) {
+    ConnectionPool connectionPool =
+        new ConnectionPool(maxIdle, keepAliveMillis, TimeUnit.MILLISECONDS);
+    Gauge.builder("foodfinder.http.pool.leased", connectionPool,
+        pool -> pool.connectionCount() - pool.idleConnectionCount()).register(registry);
+    Gauge.builder("foodfinder.http.pool.available", connectionPool,
+        ConnectionPool::idleConnectionCount).register(registry);
+
+    OkHttpClient client = new OkHttpClient.Builder()
+        .protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE))
+        .connectionPool(connectionPool)
+        .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+        .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS).build();
+
+    return new OkHttp3ClientHttpRequestFactory(client);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "foodfinder.http.client", havingValue = "simple")
+  public ClientHttpRequestFactory simpleRequestFactory() {
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(connectTimeoutMillis);
+    requestFactory.setReadTimeout(readTimeoutMillis);
+    return requestFactory;
+  }
+}
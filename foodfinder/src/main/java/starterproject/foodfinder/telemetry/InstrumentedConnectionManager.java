@@ -0,0 +1,59 @@
+package starterproject.foodfinder.telemetry;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Connection pool that reports its utilization and the time requests wait to lease a connection
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+  private final Timer leaseTimer;
+
+  public InstrumentedConnectionManager(MeterRegistry registry, long timeToLive, TimeUnit unit) {
+    super(timeToLive, unit);
+    this.leaseTimer = Timer.builder("foodfinder.http.pool.wait")
+        .description("Time spent waiting to lease a pooled connection").register(registry);
+
+    Gauge.builder("foodfinder.http.pool.leased", this, pool -> pool.getTotalStats().getLeased())
+        .register(registry);
+    Gauge.builder("foodfinder.http.pool.available", this,
+        pool -> pool.getTotalStats().getAvailable()).register(registry);
+    Gauge.builder("foodfinder.http.pool.pending", this, pool -> pool.getTotalStats().getPending())
+        .register(registry);
+    Gauge.builder("foodfinder.http.pool.max", this, pool -> pool.getTotalStats().getMax())
+        .register(registry);
+  }
+
+  @Override
+  public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+    ConnectionRequest request = super.requestConnection(route, state);
+
+    return new ConnectionRequest() {
+      @Override
+      public HttpClientConnection get(long timeout, TimeUnit unit)
+          throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+        long start = System.nanoTime();
+        try {
+          return request.get(timeout, unit);
+        } finally {
+          leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+      }
+
+      @Override
+      public boolean cancel() {
+        return request.cancel();
+      }
+    };
+  }
+}
@@ -0,0 +1,23 @@
+package starterproject.foodfinder.telemetry;
+
+import io.opentelemetry.trace.SpanContext;
+
+/**
+ * Follows the sampling decision of the caller when the request carries a trace context, and asks
+ * the root sampler otherwise
+ */
+public class ParentBasedSampler implements TraceSampler {
+  private final TraceSampler rootSampler;
+
+  public ParentBasedSampler(TraceSampler rootSampler) {
+    this.rootSampler = rootSampler;
+  }
+
+  @Override
+  public boolean shouldSample(SpanContext parentContext, String endpoint) {
+    if (parentContext != null && parentContext.isValid()) {
+      return parentContext.getTraceFlags().isSampled();
+    }
+    return rootSampler.shouldSample(parentContext, endpoint);
+  }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.web.client.RestTemplate;
 
@@ -16,10 +17,12 @@ public class RestClientConfig {
 
   @Autowired
   RestTemplateHeaderModifierInterceptor restTemplateHeaderModifierInterceptor;
+  @Autowired
+  ClientHttpRequestFactory clientHttpRequestFactory;
 
   @Bean
   public RestTemplate restTemplate() {
-    RestTemplate restTemplate = new RestTemplate();
+    RestTemplate restTemplate = new RestTemplate(clientHttpRequestFactory);
 
     List<ClientHttpRequestInterceptor> interceptors = restTemplate.getInterceptors();
     if (interceptors.isEmpty()) {
@@ -0,0 +1,62 @@
+package starterproject.foodfinder.telemetry;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import io.opentelemetry.context.propagation.HttpTextFormat;
+import io.opentelemetry.trace.DefaultSpan;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.Tracer;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Injects the trace into WebClient requests. A reactive pipeline may run each stage on a different
+ * thread, so the span is read from the Reactor context the request is subscribed with rather than
+ * from the current thread.
+ */
+@Component
+public class WebClientTraceFilter implements ExchangeFilterFunction {
+
+  private final Tracer tracer;
+
+  @Autowired
+  public WebClientTraceFilter(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  /**
+   * Returns a function that puts the span in a Reactor context, for use with subscriberContext
+   */
+  public static Function<Context, Context> withSpan(Span span) {
+    return context -> context.put(Span.class, span);
+  }
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    return Mono.subscriberContext().flatMap(context -> {
+      Span span = context.getOrDefault(Span.class, DefaultSpan.getInvalid());
+      span.setAttribute("client_http", "inject");
+      span.addEvent("Internal request sent to food service");
+
+      HttpTextFormat<SpanContext> textFormat = tracer.getHttpTextFormat();
+      ClientRequest.Builder traced = ClientRequest.from(request);
+      textFormat.inject(span.getContext(), traced,
+          new HttpTextFormat.Setter<ClientRequest.Builder>() {
+            @Override
+            public void put(ClientRequest.Builder builder, String key, String value) {
+              builder.header(key, value);
+            }
+          });
+
+      return next.exchange(traced.build());
+    });
+  }
+}
@@ -0,0 +1,81 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import starterproject.foodfinder.data.Ingredient;
+import starterproject.foodfinder.data.Vendor;
+import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.services.AsyncFoodFinderService;
+import starterproject.foodfinder.services.FoodService;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"foodfinder.async.batch-size=1", "foodfinder.async.timeout-ms=200"})
+public class AsyncFoodFinderServiceTest {
+
+  private static final String INGREDIENT_NAME = "item3";
+
+  @MockBean
+  FoodService foodService;
+
+  @Autowired
+  AsyncFoodFinderService asyncFoodFinderService;
+
+  @Test
+  public void testGetIngredientAsyncMergesBatches() throws Exception {
+    Vendor[] vendors = {new Vendor("shop1"), new Vendor("shop2")};
+    Mockito.when(foodService.getVendorsByIngredient(INGREDIENT_NAME)).thenReturn(vendors);
+
+    Ingredient ingredient = new Ingredient(INGREDIENT_NAME);
+    VendorInventory[] inventories =
+        {new VendorInventory(vendors[0], ingredient), new VendorInventory(vendors[1], ingredient)};
+    Mockito.when(foodService.getIngredientFromVendors(ArgumentMatchers.any(),
+        ArgumentMatchers.eq(INGREDIENT_NAME))).thenAnswer(invocation -> {
+          Vendor[] batch = invocation.getArgument(0);
+          return new VendorInventory[] {batch[0] == vendors[0] ? inventories[0] : inventories[1]};
+        });
+
+    VendorInventory[] testInventories =
+        asyncFoodFinderService.getIngredientAsync(INGREDIENT_NAME).get();
+
+    assertArrayEquals(inventories, testInventories);
+  }
+
+  @Test
+  public void testTimedOutCallIsInterrupted() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    Mockito.when(foodService.getVendorsByIngredient(INGREDIENT_NAME)).thenAnswer(invocation -> {
+      try {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        throw e;
+      }
+      return new Vendor[0];
+    });
+
+    try {
+      asyncFoodFinderService.getIngredientAsync(INGREDIENT_NAME).get(5, TimeUnit.SECONDS);
+      fail("Expected the call to time out");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    // the pool thread is released rather than held for the rest of the downstream call
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,91 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import starterproject.foodfinder.telemetry.BatchingSpanProcessor;
+
+public class BatchingSpanProcessorTest {
+
+  private static final int MAX_QUEUE_SIZE = 2;
+
+  private final CountDownLatch exporting = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final BlockingExporter exporter = new BlockingExporter();
+  private MeterRegistry registry;
+  private BatchingSpanProcessor processor;
+
+  @Before
+  public void setUp() {
+    registry = new SimpleMeterRegistry();
+    processor = new BatchingSpanProcessor(exporter, MAX_QUEUE_SIZE, 1, 60000, 5000, registry);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    processor.shutdown();
+  }
+
+  @Test
+  public void testFullQueueDropsAndCountsSpans() throws Exception {
+    // the worker takes the first span and holds it in the exporter, leaving the queue empty
+    processor.onEnd(Mockito.mock(ReadableSpan.class));
+    assertTrue(exporting.await(5, TimeUnit.SECONDS));
+
+    for (int span = 0; span < MAX_QUEUE_SIZE + 3; span++) {
+      processor.onEnd(Mockito.mock(ReadableSpan.class));
+    }
+
+    assertEquals(3, processor.getDroppedSpans());
+    assertEquals(3, gauge("foodfinder.spans.dropped"), 0);
+    assertEquals(MAX_QUEUE_SIZE, gauge("foodfinder.spans.queued"), 0);
+
+    release.countDown();
+    processor.shutdown();
+
+    assertEquals(1 + MAX_QUEUE_SIZE, exporter.exported.get());
+    assertEquals(1 + MAX_QUEUE_SIZE, processor.getExportedSpans());
+    assertEquals(1 + MAX_QUEUE_SIZE, gauge("foodfinder.spans.exported"), 0);
+    assertEquals(0, gauge("foodfinder.spans.queued"), 0);
+  }
+
+  private double gauge(String name) {
+    return registry.get(name).tag("exporter", BlockingExporter.class.getSimpleName()).gauge()
+        .value();
+  }
+
+  private class BlockingExporter implements SpanExporter {
+    private final AtomicInteger exported = new AtomicInteger();
+
+    @Override
+    public ResultCode export(List<SpanData> spans) {
+      exporting.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exported.addAndGet(spans.size());
+      return ResultCode.SUCCESS;
+    }
+
+    @Override
+    public void shutdown() {}
+  }
+}
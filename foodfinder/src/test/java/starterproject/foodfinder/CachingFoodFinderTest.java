@@ -0,0 +1,49 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import io.opentelemetry.trace.DefaultSpan;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodfinder.data.Ingredient;
+import starterproject.foodfinder.data.Vendor;
+import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.services.CachingFoodFinder;
+import starterproject.foodfinder.services.FoodFinder;
+
+public class CachingFoodFinderTest {
+
+  private static final String INGREDIENT_NAME = "item1";
+  private static final String VENDOR_NAME = "shop1";
+
+  private FoodFinder delegate;
+  private CachingFoodFinder cachingFoodFinder;
+
+  @Before
+  public void setUp() throws Exception {
+    delegate = Mockito.mock(FoodFinder.class);
+    Tracer tracer = Mockito.mock(Tracer.class);
+    Mockito.when(tracer.getCurrentSpan()).thenReturn(DefaultSpan.getInvalid());
+
+    cachingFoodFinder = new CachingFoodFinder(delegate, tracer, Runnable::run, true, 10, 60000,
+        60000, false, null, 0);
+  }
+
+  @Test
+  public void testGetIngredientIsCachedUntilInvalidated() throws Exception {
+    VendorInventory[] inventories =
+        {new VendorInventory(new Vendor(VENDOR_NAME), new Ingredient(INGREDIENT_NAME))};
+    Mockito.when(delegate.getIngredient(INGREDIENT_NAME)).thenReturn(inventories);
+
+    assertSame(inventories, cachingFoodFinder.getIngredient(INGREDIENT_NAME));
+    assertSame(inventories, cachingFoodFinder.getIngredient(INGREDIENT_NAME));
+    Mockito.verify(delegate, Mockito.times(1)).getIngredient(INGREDIENT_NAME);
+
+    cachingFoodFinder.invalidate(INGREDIENT_NAME);
+    cachingFoodFinder.getIngredient(INGREDIENT_NAME);
+    Mockito.verify(delegate, Mockito.times(2)).getIngredient(INGREDIENT_NAME);
+  }
+}
@@ -0,0 +1,79 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import starterproject.foodfinder.services.CircuitBreaker;
+import starterproject.foodfinder.services.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+
+  private final List<State> transitions = new ArrayList<State>();
+
+  @Test
+  public void testOpensOnFailureRateAndRejects() {
+    CircuitBreaker breaker = breaker(60000);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(breaker.tryAcquire());
+      breaker.onSuccess();
+    }
+    for (int i = 0; i < 4; i++) {
+      assertTrue(breaker.tryAcquire());
+      breaker.onFailure();
+    }
+    assertEquals(State.CLOSED, breaker.getState());
+
+    assertTrue(breaker.tryAcquire());
+    breaker.onFailure();
+    assertEquals(State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquire());
+    assertEquals(Arrays.asList(State.OPEN), transitions);
+  }
+
+  @Test
+  public void testHalfOpenClosesAfterTrialCalls() {
+    CircuitBreaker breaker = breaker(0);
+    open(breaker);
+
+    assertTrue(breaker.tryAcquire());
+    assertTrue(breaker.tryAcquire());
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    // only two trial calls at a time
+    assertFalse(breaker.tryAcquire());
+    breaker.onSuccess();
+    breaker.onSuccess();
+    assertEquals(State.CLOSED, breaker.getState());
+    assertEquals(Arrays.asList(State.OPEN, State.HALF_OPEN, State.CLOSED), transitions);
+  }
+
+  @Test
+  public void testHalfOpenReopensOnFailure() {
+    CircuitBreaker breaker = breaker(0);
+    open(breaker);
+
+    assertTrue(breaker.tryAcquire());
+    breaker.onFailure();
+    assertEquals(Arrays.asList(State.OPEN, State.HALF_OPEN, State.OPEN), transitions);
+  }
+
+  // opens at half of the last 10 calls failing, after at least 10 calls
+  private CircuitBreaker breaker(long openMillis) {
+    return new CircuitBreaker("foodvendor", 10, 10, 50, openMillis, 2,
+        (breaker, from, to) -> transitions.add(to));
+  }
+
+  private void open(CircuitBreaker breaker) {
+    for (int i = 0; i < 10; i++) {
+      breaker.tryAcquire();
+      breaker.onFailure();
+    }
+    assertEquals(State.OPEN, breaker.getState());
+  }
+}
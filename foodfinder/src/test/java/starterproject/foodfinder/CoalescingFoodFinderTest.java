@@ -0,0 +1,107 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodfinder.data.Ingredient;
+import starterproject.foodfinder.data.Vendor;
+import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.services.CoalescingFoodFinder;
+import starterproject.foodfinder.services.FoodFinder;
+
+public class CoalescingFoodFinderTest {
+
+  private static final String INGREDIENT_NAME = "item1";
+  private static final int CALLERS = 8;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private ExecutorService executor;
+  private FoodFinder delegate;
+  private Span span;
+  private CoalescingFoodFinder coalescingFoodFinder;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(CALLERS);
+    delegate = Mockito.mock(FoodFinder.class);
+    span = Mockito.mock(Span.class);
+    Tracer tracer = Mockito.mock(Tracer.class);
+    Mockito.when(tracer.getCurrentSpan()).thenReturn(span);
+    coalescingFoodFinder = new CoalescingFoodFinder(delegate, tracer, 5000);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentCallersShareOneLookup() throws Exception {
+    VendorInventory[] inventories =
+        {new VendorInventory(new Vendor("shop1"), new Ingredient(INGREDIENT_NAME))};
+    Mockito.when(delegate.getIngredient(INGREDIENT_NAME)).thenAnswer(invocation -> {
+      release.await();
+      return inventories;
+    });
+
+    List<Future<VendorInventory[]>> results = callConcurrently();
+    release.countDown();
+
+    for (Future<VendorInventory[]> result : results) {
+      assertSame(inventories, result.get(5, TimeUnit.SECONDS));
+    }
+    Mockito.verify(delegate, Mockito.times(1)).getIngredient(INGREDIENT_NAME);
+  }
+
+  @Test
+  public void testFailureReachesEveryCaller() throws Exception {
+    Error failure = new LinkageError("delegate failed");
+    Mockito.when(delegate.getIngredient(INGREDIENT_NAME)).thenAnswer(invocation -> {
+      release.await();
+      throw failure;
+    });
+
+    List<Future<VendorInventory[]>> results = callConcurrently();
+    release.countDown();
+
+    for (Future<VendorInventory[]> result : results) {
+      try {
+        result.get(5, TimeUnit.SECONDS);
+        fail("Expected the delegate's failure");
+      } catch (ExecutionException e) {
+        assertSame(failure, e.getCause());
+      }
+    }
+    Mockito.verify(delegate, Mockito.times(1)).getIngredient(INGREDIENT_NAME);
+  }
+
+  // returns once every caller but the first has joined the first caller's lookup
+  private List<Future<VendorInventory[]>> callConcurrently() {
+    List<Future<VendorInventory[]>> results = new ArrayList<Future<VendorInventory[]>>();
+    for (int caller = 0; caller < CALLERS; caller++) {
+      results.add(executor.submit(() -> coalescingFoodFinder.getIngredient(INGREDIENT_NAME)));
+    }
+    Mockito.verify(span, Mockito.timeout(5000).times(CALLERS - 1))
+        .setAttribute("singleflight.coalesced", true);
+    assertTrue(results.stream().noneMatch(Future::isDone));
+    return results;
+  }
+}
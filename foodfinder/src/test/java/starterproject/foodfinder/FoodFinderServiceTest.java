@@ -1,6 +1,8 @@
 package starterproject.foodfinder;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,10 +12,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import starterproject.foodfinder.data.FxRates;
 import starterproject.foodfinder.data.Vendor;
 import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.services.CurrencyConverter;
 import starterproject.foodfinder.services.FoodFinderService;
 import starterproject.foodfinder.services.FoodService;
+import starterproject.foodfinder.services.VendorRanking;
 import starterproject.foodfinder.data.Ingredient;
 
 @RunWith(SpringRunner.class)
@@ -29,6 +34,9 @@ public class FoodFinderServiceTest {
   @Autowired
   FoodFinderService foodFinderService;
 
+  @Autowired
+  CurrencyConverter currencyConverter;
+
   @Test
   public void testGetVendorsByIngredient() throws Exception {
     Vendor[] vendors = {new Vendor(VENDOR_NAME)};
@@ -46,4 +54,55 @@ public class FoodFinderServiceTest {
     assertEquals(inventories[0], testInventories[0]);
   }
 
+  @Test
+  public void testGetTopIngredientRanksVendors() throws Exception {
+    Vendor[] vendors = {new Vendor("shop1"), new Vendor("shop2"), new Vendor("shop3")};
+    VendorInventory[] inventories = {
+        new VendorInventory(vendors[0], new Ingredient(INGREDIENT_NAME, 10, 20, "CAD")),
+        new VendorInventory(vendors[1], new Ingredient(INGREDIENT_NAME, 4, 2, "CAD")),
+        new VendorInventory(vendors[2], new Ingredient(INGREDIENT_NAME, 5, 12, "CAD"))};
+    FxRates rates = currencyConverter.getRates();
+
+    Mockito.when(foodService.getVendorsByIngredient(INGREDIENT_NAME)).thenReturn(vendors);
+    Mockito.when(foodService.getIngredientFromVendors(vendors, INGREDIENT_NAME))
+        .thenReturn(inventories);
+
+    assertArrayEquals(new VendorInventory[] {inventories[1], inventories[2]}, foodFinderService
+        .getTopIngredient(INGREDIENT_NAME, VendorRanking.PRICE, 2, 0, rates));
+    assertArrayEquals(new VendorInventory[] {inventories[2], inventories[0]}, foodFinderService
+        .getTopIngredient(INGREDIENT_NAME, VendorRanking.UNIT_PRICE, 2, 0, rates));
+    assertArrayEquals(new VendorInventory[] {inventories[2], inventories[0]}, foodFinderService
+        .getTopIngredient(INGREDIENT_NAME, VendorRanking.PRICE, 5, 10, rates));
+    assertArrayEquals(new VendorInventory[] {inventories[0]}, foodFinderService
+        .getTopIngredient(INGREDIENT_NAME, VendorRanking.QUANTITY, 1, 0, rates));
+  }
+
+  @Test
+  public void testNormalizeQuotesPricesInOneCurrency() throws Exception {
+    Vendor[] vendors = {new Vendor("shop1"), new Vendor("shop2")};
+    VendorInventory[] inventories = {
+        new VendorInventory(vendors[0], new Ingredient(INGREDIENT_NAME, 10, 1, "USD")),
+        new VendorInventory(vendors[1], new Ingredient(INGREDIENT_NAME, 10, 1, "JPY"))};
+
+    Mockito.when(foodService.getVendorsByIngredient(INGREDIENT_NAME)).thenReturn(vendors);
+    Mockito.when(foodService.getIngredientFromVendors(vendors, INGREDIENT_NAME))
+        .thenReturn(inventories);
+
+    VendorInventory[] cheapest = foodFinderService.getTopIngredient(INGREDIENT_NAME,
+        VendorRanking.PRICE, 1, 0, currencyConverter.getRates());
+    assertArrayEquals(new VendorInventory[] {inventories[1]}, cheapest);
+
+    VendorInventory[] normalized = currencyConverter.normalize(inventories, "usd");
+    // a row already quoted in the target currency is not copied
+    assertSame(inventories[0], normalized[0]);
+    assertEquals(10, normalized[0].getIngredients().get(0).getPrice(), 0.001);
+    assertEquals(0.067, normalized[1].getIngredients().get(0).getPrice(), 0.001);
+    assertEquals("USD", normalized[1].getIngredients().get(0).getCurrency());
+    assertEquals("JPY", inventories[1].getIngredients().get(0).getCurrency());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNormalizeRejectsUnknownCurrency() {
+    currencyConverter.normalize(new VendorInventory[0], "XYZ");
+  }
 }
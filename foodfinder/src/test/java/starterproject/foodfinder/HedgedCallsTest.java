@@ -0,0 +1,88 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import io.opentelemetry.trace.DefaultSpan;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodfinder.services.HedgedCalls;
+import starterproject.foodfinder.services.LoadBalancer;
+
+public class HedgedCallsTest {
+
+  private static final String ENDPOINT = "/foodvendor/vendors";
+  private static final long SLOW_MILLIS = 2000;
+
+  private ExecutorService executor;
+  private Tracer tracer;
+  private LoadBalancer balancer;
+  // makes the next call slow, whichever instance it goes to
+  private final AtomicBoolean slowNext = new AtomicBoolean();
+  private final List<String> called = new CopyOnWriteArrayList<String>();
+
+  @Before
+  public void setUp() {
+    executor = Executors.newCachedThreadPool();
+    tracer = Mockito.mock(Tracer.class);
+    Mockito.when(tracer.getCurrentSpan()).thenReturn(DefaultSpan.getInvalid());
+    balancer = new LoadBalancer("foodvendor", 5, 30000, 0);
+    balancer.setAddresses(Arrays.asList("shop1:8082", "shop2:8082"));
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSlowCallIsHedgedToAnotherInstance() throws Exception {
+    HedgedCalls hedgedCalls = new HedgedCalls(tracer, executor, true, 100, 10, 10, 1, 5000);
+    warmUp(hedgedCalls);
+
+    slowNext.set(true);
+    long start = System.nanoTime();
+    String instance = hedgedCalls.call(ENDPOINT, balancer, this::respond);
+    assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS / 2));
+    assertEquals(2, called.size());
+    assertNotEquals(called.get(0), instance);
+  }
+
+  @Test
+  public void testNoHedgeWithoutBudget() throws Exception {
+    HedgedCalls hedgedCalls = new HedgedCalls(tracer, executor, true, 0, 10, 10, 1, 5000);
+    warmUp(hedgedCalls);
+
+    slowNext.set(true);
+    hedgedCalls.call(ENDPOINT, balancer, this::respond);
+    assertEquals(1, called.size());
+  }
+
+  private void warmUp(HedgedCalls hedgedCalls) throws Exception {
+    for (int i = 0; i < 20; i++) {
+      hedgedCalls.call(ENDPOINT, balancer, this::respond);
+    }
+    called.clear();
+  }
+
+  private String respond(String instance) throws Exception {
+    called.add(instance);
+    if (slowNext.getAndSet(false)) {
+      Thread.sleep(SLOW_MILLIS);
+    }
+    return instance;
+  }
+}
@@ -0,0 +1,137 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import starterproject.foodfinder.telemetry.HttpClientConfig;
+
+public class HttpClientConfigTest {
+
+  private static final int MAX_TOTAL = 4;
+  private static final String SLOW_PATH = "/slow";
+
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private ExecutorService executor;
+  private HttpServer server;
+  private MeterRegistry registry;
+  private HttpClientConfig httpClientConfig;
+
+  @Before
+  public void setUp() throws IOException {
+    executor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", this::respond);
+    server.setExecutor(executor);
+    server.start();
+
+    registry = new SimpleMeterRegistry();
+    httpClientConfig = new HttpClientConfig();
+    ReflectionTestUtils.setField(httpClientConfig, "connectTimeoutMillis", 1000);
+    ReflectionTestUtils.setField(httpClientConfig, "readTimeoutMillis", 5000);
+    ReflectionTestUtils.setField(httpClientConfig, "keepAliveMillis", 30000L);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testPooledClientReusesConnection() throws IOException {
+    try (CloseableHttpClient client =
+        httpClientConfig.pooledHttpClient(registry, MAX_TOTAL, MAX_TOTAL, 1000)) {
+      RestTemplate restTemplate = restTemplate(client);
+
+      for (int request = 0; request < 5; request++) {
+        assertEquals("ok", restTemplate.getForObject(url("/"), String.class));
+      }
+
+      assertEquals(1, clientPorts.size());
+      assertEquals(0, gauge("foodfinder.http.pool.leased"), 0);
+      assertEquals(1, gauge("foodfinder.http.pool.available"), 0);
+      assertEquals(MAX_TOTAL, gauge("foodfinder.http.pool.max"), 0);
+      assertEquals(5, registry.get("foodfinder.http.pool.wait").timer().count());
+    }
+  }
+
+  @Test
+  public void testExhaustedPoolTimesOut() throws Exception {
+    try (CloseableHttpClient client = httpClientConfig.pooledHttpClient(registry, 1, 1, 100)) {
+      RestTemplate restTemplate = restTemplate(client);
+      Future<String> slow = executor.submit(() -> restTemplate.getForObject(url(SLOW_PATH),
+          String.class));
+      while (gauge("foodfinder.http.pool.leased") < 1) {
+        Thread.sleep(10);
+      }
+
+      try {
+        restTemplate.getForObject(url("/"), String.class);
+        fail("Expected the pool to be exhausted");
+      } catch (ResourceAccessException e) {
+        assertTrue(e.getCause() instanceof ConnectionPoolTimeoutException);
+      }
+
+      release.countDown();
+      assertEquals("ok", slow.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  private static RestTemplate restTemplate(CloseableHttpClient client) {
+    return new RestTemplate(new HttpComponentsClientHttpRequestFactory(client));
+  }
+
+  private double gauge(String name) {
+    return registry.get(name).gauge().value();
+  }
+
+  private String url(String path) {
+    return "http://localhost:" + server.getAddress().getPort() + path;
+  }
+
+  private void respond(HttpExchange exchange) throws IOException {
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+    if (exchange.getRequestURI().getPath().equals(SLOW_PATH)) {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
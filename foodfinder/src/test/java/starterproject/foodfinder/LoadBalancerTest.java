@@ -0,0 +1,67 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import starterproject.foodfinder.services.LoadBalancer;
+
+public class LoadBalancerTest {
+
+  private static final String SHOP1 = "shop1:8082";
+  private static final String SHOP2 = "shop2:8082";
+
+  @Test
+  public void testChoosesLessLoadedInstance() {
+    LoadBalancer balancer = new LoadBalancer("foodvendor", 5, 30000, 0);
+    balancer.setAddresses(Arrays.asList(SHOP1, SHOP2));
+    LoadBalancer.Endpoint busy = balancer.getEndpoints().get(0);
+    busy.begin();
+    busy.begin();
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals(SHOP2, balancer.choose(null).getAddress());
+    }
+    assertNull(new LoadBalancer("foodvendor", 5, 30000, 0).choose(null));
+  }
+
+  @Test
+  public void testFailingInstanceIsEjected() {
+    LoadBalancer balancer = new LoadBalancer("foodvendor", 3, 30000, 0);
+    balancer.setAddresses(Arrays.asList(SHOP1, SHOP2));
+    LoadBalancer.Endpoint failing = balancer.getEndpoints().get(0);
+    for (int i = 0; i < 3; i++) {
+      failing.begin();
+      failing.end(false);
+    }
+
+    assertTrue(failing.isEjected());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(SHOP2, balancer.choose(null).getAddress());
+    }
+    // with no other instance left the ejected one is still used
+    assertSame(failing, balancer.choose(balancer.getEndpoints().get(1)));
+  }
+
+  @Test
+  public void testNewInstanceStartsSlow() {
+    LoadBalancer balancer = new LoadBalancer("foodvendor", 5, 30000, 60000);
+    balancer.setAddresses(Collections.singletonList(SHOP1));
+    LoadBalancer.Endpoint warm = balancer.getEndpoints().get(0);
+    balancer.setAddresses(Arrays.asList(SHOP1, SHOP2));
+
+    assertSame(warm, balancer.getEndpoints().get(0));
+    assertFalse(warm.isEjected());
+    // both are just as loaded, but only the first is warm
+    for (int i = 0; i < 100; i++) {
+      assertSame(warm, balancer.choose(null));
+    }
+  }
+}
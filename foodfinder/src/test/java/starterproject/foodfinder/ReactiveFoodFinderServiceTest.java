@@ -0,0 +1,99 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.opentelemetry.trace.DefaultSpan;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracer;
+import io.opentelemetry.trace.Tracestate;
+import io.opentelemetry.trace.propagation.HttpTraceContext;
+import reactor.core.publisher.Mono;
+import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.services.LoadBalancer;
+import starterproject.foodfinder.services.ReactiveFoodFinderService;
+import starterproject.foodfinder.telemetry.WebClientTraceFilter;
+
+public class ReactiveFoodFinderServiceTest {
+
+  private static final String INGREDIENT_NAME = "item1";
+  private static final String SUPPLIER_PATH = "/foodsupplier/ingredient";
+  private static final String VENDOR_PATH = "/foodvendor/ingredient";
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String SPAN_ID = "00f067aa0ba902b7";
+
+  private final List<ClientRequest> requests = new CopyOnWriteArrayList<ClientRequest>();
+  private ReactiveFoodFinderService reactiveFoodFinderService;
+
+  @Before
+  public void setUp() {
+    Tracer tracer = Mockito.mock(Tracer.class);
+    Mockito.when(tracer.getHttpTextFormat()).thenReturn(new HttpTraceContext());
+    WebClient webClient = WebClient.builder().exchangeFunction(this::respond)
+        .filter(new WebClientTraceFilter(tracer)).build();
+
+    LoadBalancer supplierInstances = new LoadBalancer("foodsupplier", 5, 30000, 0);
+    supplierInstances.setAddresses(Arrays.asList("localhost:8081"));
+    LoadBalancer vendorInstances = new LoadBalancer("foodvendor", 5, 30000, 0);
+    vendorInstances.setAddresses(Arrays.asList("localhost:8082"));
+    reactiveFoodFinderService = new ReactiveFoodFinderService(webClient, supplierInstances,
+        SUPPLIER_PATH, vendorInstances, VENDOR_PATH, 5000);
+  }
+
+  @Test
+  public void testGetIngredient() {
+    List<VendorInventory> inventories = reactiveFoodFinderService.getIngredient(INGREDIENT_NAME)
+        .subscriberContext(WebClientTraceFilter.withSpan(span())).collectList().block();
+
+    assertEquals(2, inventories.size());
+    assertEquals("shop1", inventories.get(0).getVendor().getName());
+    assertEquals("shop2", inventories.get(1).getVendor().getName());
+    assertEquals(INGREDIENT_NAME, inventories.get(1).getIngredients().get(0).getName());
+
+    assertEquals(2, requests.size());
+    assertEquals(HttpMethod.GET, requests.get(0).method());
+    assertEquals(HttpMethod.POST, requests.get(1).method());
+    // the span is read from the subscriber context on whichever thread sends each request
+    for (ClientRequest request : requests) {
+      assertTrue(request.headers().getFirst("traceparent").contains(TRACE_ID));
+    }
+  }
+
+  private static Span span() {
+    SpanContext context = SpanContext.create(TraceId.fromLowerBase16(TRACE_ID, 0),
+        SpanId.fromLowerBase16(SPAN_ID, 0), TraceFlags.getDefault(), Tracestate.getDefault());
+    return DefaultSpan.create(context);
+  }
+
+  private Mono<ClientResponse> respond(ClientRequest request) {
+    requests.add(request);
+    String body;
+    if (request.url().getPath().equals(SUPPLIER_PATH)) {
+      body = "[{\"name\":\"shop1\"},{\"name\":\"shop2\"}]";
+    } else {
+      body = "[{\"vendor\":{\"name\":\"shop1\"},\"ingredients\":[{\"name\":\"item1\"}]},"
+          + "{\"vendor\":{\"name\":\"shop2\"},\"ingredients\":[{\"name\":\"item1\"}]}]";
+    }
+    return Mono.just(ClientResponse.create(HttpStatus.OK)
+        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(body).build());
+  }
+}
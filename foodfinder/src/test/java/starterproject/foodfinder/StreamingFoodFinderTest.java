@@ -0,0 +1,114 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import starterproject.foodfinder.data.VendorInventory;
+import starterproject.foodfinder.services.StreamingFoodFinder;
+import starterproject.foodsupplier.proto.FoodSupplierGrpc;
+import starterproject.foodsupplier.proto.IngredientQuery;
+import starterproject.foodsupplier.proto.VendorRecord;
+import starterproject.foodvendor.proto.FoodVendorGrpc;
+import starterproject.foodvendor.proto.InventoryRecord;
+import starterproject.foodvendor.proto.VendorQuery;
+
+public class StreamingFoodFinderTest {
+
+  private static final String INGREDIENT_NAME = "item1";
+  private static final String MISSING_INGREDIENT_NAME = "missing";
+
+  private Server server;
+  private ManagedChannel channel;
+  private StreamingFoodFinder streamingFoodFinder;
+
+  @Before
+  public void setUp() throws Exception {
+    String name = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(name).directExecutor()
+        .addService(new FakeSupplier()).addService(new FakeVendor()).build().start();
+    channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    streamingFoodFinder = new StreamingFoodFinder(channel, channel, 5000);
+  }
+
+  @After
+  public void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  public void testStreamIngredientPipesVendorsIntoFoodVendor() throws Exception {
+    try (StreamingFoodFinder.InventoryStream stream =
+        streamingFoodFinder.streamIngredient(INGREDIENT_NAME)) {
+      VendorInventory first = stream.next();
+      assertEquals("shop1", first.getVendor().getName());
+      assertEquals(INGREDIENT_NAME, first.getIngredients().get(0).getName());
+      assertEquals("shop3", stream.next().getVendor().getName());
+      assertNull(stream.next());
+      assertNull(stream.next());
+    }
+  }
+
+  @Test(expected = ExecutionException.class)
+  public void testStreamIngredientFailsWithSupplier() throws Exception {
+    try (StreamingFoodFinder.InventoryStream stream =
+        streamingFoodFinder.streamIngredient(MISSING_INGREDIENT_NAME)) {
+      stream.next();
+    }
+  }
+
+  private static class FakeSupplier extends FoodSupplierGrpc.FoodSupplierImplBase {
+
+    @Override
+    public void getVendorsByIngredient(IngredientQuery query,
+        StreamObserver<VendorRecord> responseObserver) {
+      if (MISSING_INGREDIENT_NAME.equals(query.getIngredientName())) {
+        responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+        return;
+      }
+      for (String vendorName : new String[] {"shop1", "shop2", "shop3"}) {
+        responseObserver.onNext(VendorRecord.newBuilder().setName(vendorName).build());
+      }
+      responseObserver.onCompleted();
+    }
+  }
+
+  // stocks the ingredient at every vendor but shop2
+  private static class FakeVendor extends FoodVendorGrpc.FoodVendorImplBase {
+
+    @Override
+    public StreamObserver<VendorQuery> getIngredientFromVendors(
+        StreamObserver<InventoryRecord> responseObserver) {
+      return new StreamObserver<VendorQuery>() {
+        @Override
+        public void onNext(VendorQuery query) {
+          if (!"shop2".equals(query.getVendorName())) {
+            responseObserver.onNext(InventoryRecord.newBuilder()
+                .setVendorName(query.getVendorName()).setIngredientName(query.getIngredientName())
+                .setPrice(1).setQuantity(1).setCurrency("CAD").build());
+          }
+        }
+
+        @Override
+        public void onError(Throwable t) {}
+
+        @Override
+        public void onCompleted() {
+          responseObserver.onCompleted();
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package starterproject.foodfinder;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.opentelemetry.trace.DefaultSpan;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracestate;
+import starterproject.foodfinder.telemetry.ParentBasedSampler;
+import starterproject.foodfinder.telemetry.ProbabilitySampler;
+import starterproject.foodfinder.telemetry.RateLimitingSampler;
+import starterproject.foodfinder.telemetry.SamplerConfig;
+import starterproject.foodfinder.telemetry.TraceSampler;
+
+public class TraceSamplerTest {
+
+  private static final String ENDPOINT = "/foodfinder/ingredient";
+  private static final String OTHER_ENDPOINT = "/foodfinder/ingredients";
+  private static final SpanContext NO_PARENT = DefaultSpan.getInvalid().getContext();
+  // one token every 1000 seconds, so only the burst can be sampled during a test
+  private static final double SLOW_RATE = 0.001;
+
+  private final SamplerConfig samplerConfig = new SamplerConfig();
+
+  @Test
+  public void testAlwaysSamples() {
+    TraceSampler sampler = samplerConfig.traceSampler("always", 0.0, 1, 1, 1, false);
+
+    for (int request = 0; request < 100; request++) {
+      assertTrue(sampler.shouldSample(NO_PARENT, ENDPOINT));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownSamplerIsRejected() {
+    samplerConfig.traceSampler("alwys", 1.0, 1, 1, 1, true);
+  }
+
+  @Test
+  public void testProbabilityBounds() {
+    TraceSampler never = new ProbabilitySampler(0.0);
+    TraceSampler always = new ProbabilitySampler(1.0);
+
+    for (int request = 0; request < 100; request++) {
+      assertFalse(never.shouldSample(NO_PARENT, ENDPOINT));
+      assertTrue(always.shouldSample(NO_PARENT, ENDPOINT));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testProbabilityAboveOneIsRejected() {
+    new ProbabilitySampler(1.5);
+  }
+
+  @Test
+  public void testRateLimitAllowsBurstPerEndpoint() {
+    TraceSampler sampler = new RateLimitingSampler(SLOW_RATE, 2, 10);
+
+    assertTrue(sampler.shouldSample(NO_PARENT, ENDPOINT));
+    assertTrue(sampler.shouldSample(NO_PARENT, ENDPOINT));
+    assertFalse(sampler.shouldSample(NO_PARENT, ENDPOINT));
+    assertTrue(sampler.shouldSample(NO_PARENT, OTHER_ENDPOINT));
+  }
+
+  @Test
+  public void testEndpointsBeyondLimitShareOneBucket() {
+    TraceSampler sampler = new RateLimitingSampler(SLOW_RATE, 1, 1);
+
+    assertTrue(sampler.shouldSample(NO_PARENT, ENDPOINT));
+    assertTrue(sampler.shouldSample(NO_PARENT, OTHER_ENDPOINT));
+    assertFalse(sampler.shouldSample(NO_PARENT, "/foodfinder/other"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroRateIsRejected() {
+    new RateLimitingSampler(0, 10, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRateTooLowForBurstIsRejected() {
+    new RateLimitingSampler(Double.MIN_VALUE, 10, 10);
+  }
+
+  @Test
+  public void testParentDecisionTakesPrecedence() {
+    TraceSampler sampler = new ParentBasedSampler(new ProbabilitySampler(0.0));
+
+    assertTrue(sampler.shouldSample(parent(true), ENDPOINT));
+    assertFalse(sampler.shouldSample(parent(false), ENDPOINT));
+    assertFalse(new ParentBasedSampler(new ProbabilitySampler(1.0))
+        .shouldSample(parent(false), ENDPOINT));
+  }
+
+  @Test
+  public void testRootSamplerDecidesWithoutParent() {
+    assertFalse(new ParentBasedSampler(new ProbabilitySampler(0.0))
+        .shouldSample(NO_PARENT, ENDPOINT));
+    assertTrue(new ParentBasedSampler(new ProbabilitySampler(1.0))
+        .shouldSample(NO_PARENT, ENDPOINT));
+  }
+
+  private static SpanContext parent(boolean sampled) {
+    return SpanContext.createFromRemoteParent(
+        TraceId.fromLowerBase16("4bf92f3577b34da6a3ce929d0e0e4736", 0),
+        SpanId.fromLowerBase16("00f067aa0ba902b7", 0),
+        TraceFlags.builder().setIsSampled(sampled).build(), Tracestate.getDefault());
+  }
+}
@@ -0,0 +1,49 @@
+package starterproject.foodsupplier.controllers;
+
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodsupplier.services.CatalogReloader;
+
+/**
+ * Reloads the supplier catalog without a restart
+ */
+@RestController
+@RequestMapping(value = "/foodsupplier/catalog")
+public class CatalogController {
+  private static final Logger LOG = Logger.getLogger(CatalogController.class.getName());
+
+  @Autowired
+  private CatalogReloader catalogReloader;
+  @Autowired
+  Tracer tracer;
+
+  /**
+   * Returns the version of the new catalog snapshot
+   */
+  @PostMapping(value = "reload")
+  public ResponseEntity<Long> reload() {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("CatalogController.reload");
+
+    try {
+      long version = catalogReloader.reload();
+      span.setAttribute("catalog.version", version);
+      return ResponseEntity.ok(version);
+    } catch (Exception e) {
+      span.setStatus(Status.ABORTED);
+      span.addEvent("Error while reloading catalog");
+      LOG.severe(String.format("Error while reloading catalog: %s", e.getMessage()));
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+}
@@ -2,10 +2,14 @@ package starterproject.foodsupplier.controllers;
 
 
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -18,9 +22,10 @@ import starterproject.foodsupplier.data.Vendor;
 import starterproject.foodsupplier.services.FoodSupplierService;
 
 /**
- * Maps vendors to available ingredients ingredients
+ * Maps vendors to available ingredients ingredients. Responds with JSON unless CBOR is accepted.
  */
-@RequestMapping("/foodsupplier/vendors")
+@RequestMapping(value = "/foodsupplier/vendors",
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @RestController
 public class FoodSupplierController {
   private static final Logger LOG = Logger.getLogger(FoodSupplierController.class.getName());
@@ -47,4 +52,25 @@ public class FoodSupplierController {
 
     return vendors;
   }
+
+  @PostMapping(value = "batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public Map<String, List<Vendor>> getVendorsByIngredients(
+      @RequestBody List<String> ingredientNames) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("FoodSupplierController getVendorsByIngredients");
+    span.setAttribute("ingredients", ingredientNames.size());
+    LOG.info("FoodSupplierController /foodsupplier/vendors/batch called span starts");
+
+    Map<String, List<Vendor>> vendors = null;
+    try {
+      vendors = foodSupplierService.getVendorsByIngredients(ingredientNames);
+    } catch (Exception e) {
+      span.setStatus(Status.ABORTED);
+      span.addEvent("Error while calling service");
+      LOG.severe(String.format("Error while calling service: %s", e.getMessage()));
+    }
+
+    return vendors;
+  }
 }
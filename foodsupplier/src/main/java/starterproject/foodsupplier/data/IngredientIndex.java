@@ -0,0 +1,77 @@
+package starterproject.foodsupplier.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only inverted index from an ingredient to the vendors that stock it. Ingredient and vendor
+ * names are interned to dense ids while the index is built, so a lookup is one dictionary probe
+ * and an array read. Vendor lists are built once and shared between lookups, so callers must not
+ * modify the returned lists or vendors.
+ */
+public class IngredientIndex {
+
+  private final NameDictionary ingredientIds;
+  private final List<Vendor>[] vendorsByIngredient;
+
+  private IngredientIndex(NameDictionary ingredientIds, List<Vendor>[] vendorsByIngredient) {
+    this.ingredientIds = ingredientIds;
+    this.vendorsByIngredient = vendorsByIngredient;
+  }
+
+  public List<Vendor> getVendors(String ingredientName) {
+    int ingredientId = ingredientIds.getId(ingredientName);
+    return ingredientId == NameDictionary.NOT_FOUND
+        ? Collections.emptyList()
+        : vendorsByIngredient[ingredientId];
+  }
+
+  public int size() {
+    return vendorsByIngredient.length;
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Collects vendor/item pairs and freezes them into an {@link IngredientIndex}
+   */
+  public static class Builder {
+    private final NameDictionary vendorIds = new NameDictionary();
+    private final NameDictionary ingredientIds = new NameDictionary();
+    private final List<Vendor> vendors = new ArrayList<Vendor>();
+    private final List<List<Vendor>> vendorsByIngredient = new ArrayList<List<Vendor>>();
+
+    public Builder addItem(String vendorName, String ingredientName) {
+      int vendorId = vendorIds.intern(vendorName);
+      if (vendorId == vendors.size()) {
+        vendors.add(new Vendor(vendorName));
+      }
+      int ingredientId = ingredientIds.intern(ingredientName);
+      if (ingredientId == vendorsByIngredient.size()) {
+        vendorsByIngredient.add(new ArrayList<Vendor>());
+      }
+
+      Vendor vendor = vendors.get(vendorId);
+      List<Vendor> ingredientVendors = vendorsByIngredient.get(ingredientId);
+      // items arrive grouped by vendor, so a repeated item can only follow its own vendor
+      int last = ingredientVendors.size() - 1;
+      if (last < 0 || ingredientVendors.get(last) != vendor) {
+        ingredientVendors.add(vendor);
+      }
+      return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public IngredientIndex build() {
+      List<Vendor>[] frozen = new List[vendorsByIngredient.size()];
+      for (int ingredientId = 0; ingredientId < frozen.length; ingredientId++) {
+        frozen[ingredientId] = Collections
+            .unmodifiableList(new ArrayList<Vendor>(vendorsByIngredient.get(ingredientId)));
+      }
+      return new IngredientIndex(ingredientIds, frozen);
+    }
+  }
+}
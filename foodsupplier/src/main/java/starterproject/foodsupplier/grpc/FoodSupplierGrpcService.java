@@ -0,0 +1,54 @@
+package starterproject.foodsupplier.grpc;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodsupplier.data.Vendor;
+import starterproject.foodsupplier.proto.FoodSupplierGrpc;
+import starterproject.foodsupplier.proto.IngredientQuery;
+import starterproject.foodsupplier.proto.VendorRecord;
+import starterproject.foodsupplier.services.FoodSupplierService;
+
+/**
+ * Streams the vendors of an ingredient over gRPC. Vendors are sent only while the transport is
+ * ready for more, so a slow client holds back the stream instead of buffering it all.
+ */
+@Component
+public class FoodSupplierGrpcService extends FoodSupplierGrpc.FoodSupplierImplBase {
+
+  @Autowired
+  private FoodSupplierService foodSupplierService;
+  @Autowired
+  Tracer tracer;
+
+  @Override
+  public void getVendorsByIngredient(IngredientQuery query,
+      StreamObserver<VendorRecord> responseObserver) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("FoodSupplierGrpcService getVendorsByIngredient");
+
+    List<Vendor> vendors = foodSupplierService.getVendorsByIngredient(query.getIngredientName());
+    span.setAttribute("vendors", vendors.size());
+
+    ServerCallStreamObserver<VendorRecord> call =
+        (ServerCallStreamObserver<VendorRecord>) responseObserver;
+    Iterator<Vendor> remaining = vendors.iterator();
+    boolean[] completed = {false};
+    call.setOnReadyHandler(() -> {
+      while (call.isReady() && remaining.hasNext()) {
+        call.onNext(VendorRecord.newBuilder().setName(remaining.next().getName()).build());
+      }
+      if (!remaining.hasNext() && !completed[0]) {
+        completed[0] = true;
+        call.onCompleted();
+      }
+    });
+  }
+}
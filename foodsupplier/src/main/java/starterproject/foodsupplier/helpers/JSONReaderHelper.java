@@ -1,39 +1,104 @@
 package starterproject.foodsupplier.helpers;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
 
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
-import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 /**
- * 
+ *
  * Read JSON file
  *
+ * Streams a { vendor: [item, ...] } catalog token by token and hands every vendor/item pair to a
+ * handler, so the catalog is never held in memory as text or as a tree
+ *
  */
 public class JSONReaderHelper {
-  public static JSONObject getData(String resourceName) {
-    JSONObject dataJson = new JSONObject();
-    try {
-      Resource resource = new ClassPathResource(resourceName);
-      String jsonString =
-          StreamUtils.copyToString(resource.getInputStream(), Charset.defaultCharset());
-
-      JSONParser jsonParser = new JSONParser();
-      dataJson = (JSONObject) jsonParser.parse(jsonString);
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-    } catch (IOException e) {
-      e.printStackTrace();
-    } catch (ParseException e) {
-      e.printStackTrace();
+  private static final Logger LOG = Logger.getLogger(JSONReaderHelper.class.getName());
+  private static final int PROGRESS_INTERVAL = 100000;
+
+  // vendor names are unique, canonicalizing them would only grow the symbol table
+  private static final JsonFactory JSON_FACTORY =
+      new JsonFactory().disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
+
+  /**
+   * Receives each vendor/item pair of the catalog in file order
+   */
+  @FunctionalInterface
+  public interface VendorItemHandler {
+    void onItem(String vendorName, String itemName);
+  }
+
+  public static void readVendorItems(String resourceName, VendorItemHandler handler)
+      throws IOException {
+    Resource resource = new ClassPathResource(resourceName);
+    try (InputStream in = resource.getInputStream()) {
+      readVendorItems(in, resourceName, resource.contentLength(), handler);
+    }
+  }
+
+  public static void readVendorItems(Path file, VendorItemHandler handler) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      readVendorItems(in, file.toString(), Files.size(file), handler);
+    }
+  }
+
+  /**
+   * @param source name of the catalog used in progress and error messages
+   * @param totalBytes size of the stream if known, or -1
+   * @return the number of vendor/item pairs read
+   * @throws JsonParseException with the line and column of malformed input
+   */
+  public static long readVendorItems(InputStream in, String source, long totalBytes,
+      VendorItemHandler handler) throws IOException {
+    long items = 0;
+    try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String vendorName = parser.getCurrentName();
+        expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+          expect(parser, token, JsonToken.VALUE_STRING);
+          handler.onItem(vendorName, parser.getText());
+
+          if (++items % PROGRESS_INTERVAL == 0) {
+            reportProgress(source, items, parser.getCurrentLocation().getByteOffset(), totalBytes);
+          }
+        }
+      }
+      expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
     }
 
-    return dataJson;
+    LOG.info(String.format("Loaded %d items from %s", items, source));
+    return items;
+  }
+
+  private static void expect(JsonParser parser, JsonToken actual, JsonToken expected)
+      throws JsonParseException {
+    if (actual != expected) {
+      throw new JsonParseException(parser,
+          String.format("Expected %s but found %s", expected, actual));
+    }
+  }
+
+  private static void reportProgress(String source, long items, long bytesRead, long totalBytes) {
+    if (totalBytes > 0) {
+      LOG.info(String.format("Loading %s: %d items, %d%%", source, items,
+          bytesRead * 100 / totalBytes));
+    } else {
+      LOG.info(String.format("Loading %s: %d items, %d bytes", source, items, bytesRead));
+    }
   }
 }
@@ -1,6 +1,7 @@
 package starterproject.foodsupplier.services;
 
 import java.util.List;
+import java.util.Map;
 
 import starterproject.foodsupplier.data.Vendor;
 
@@ -9,4 +10,6 @@ import starterproject.foodsupplier.data.Vendor;
  */
 public interface FoodSupplier {
   public List<Vendor> getVendorsByIngredient(String ingredientName);
+
+  public Map<String, List<Vendor>> getVendorsByIngredients(List<String> ingredientNames);
 }
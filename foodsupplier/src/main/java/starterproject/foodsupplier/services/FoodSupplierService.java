@@ -1,46 +1,109 @@
 package starterproject.foodsupplier.services;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import starterproject.foodsupplier.data.IngredientIndex;
 import starterproject.foodsupplier.data.Vendor;
 import starterproject.foodsupplier.helpers.JSONReaderHelper;
 
 /**
- * Maps vendors to available ingredients ingredients
+ * Maps vendors to available ingredients ingredients. The index is an immutable snapshot that a
+ * reload replaces in one write, so lookups never block and never see a partly built catalog.
  */
 @Service
 public class FoodSupplierService implements FoodSupplier {
   private static final String SUPPLIER_FILE = "suppliers.json";
 
-  private JSONObject vendorToItemsJson;
+  private final String catalogPath;
+  private volatile IngredientIndex ingredientIndex;
+  private volatile long catalogVersion = 1;
 
   public FoodSupplierService() {
-    vendorToItemsJson = JSONReaderHelper.getData(SUPPLIER_FILE);
+    this("");
   }
 
-  public List<Vendor> getVendorsByIngredient(String ingredientName) {
-    List<Vendor> vendors = new ArrayList<Vendor>();
+  /**
+   * @param catalogPath catalog file to load and reload from, or empty for the bundled catalog
+   */
+  @Autowired
+  public FoodSupplierService(@Value("${foodsupplier.catalog.path:}") String catalogPath) {
+    this.catalogPath = catalogPath;
+    this.ingredientIndex = loadIndex(catalogPath);
+  }
 
-    for (Iterator<String> iterator = vendorToItemsJson.keySet().iterator(); iterator.hasNext();) {
-      String vendorName = iterator.next();
+  public FoodSupplierService(IngredientIndex ingredientIndex) {
+    this.catalogPath = "";
+    this.ingredientIndex = ingredientIndex;
+  }
 
-      if (vendorHasItem(vendorName, ingredientName)) {
-        Vendor vendor = new Vendor(vendorName);
-        vendors.add(vendor);
-      }
+  /**
+   * Returns a shared, unmodifiable list of the vendors that stock the ingredient
+   */
+  @Override
+  public List<Vendor> getVendorsByIngredient(String ingredientName) {
+    return ingredientIndex.getVendors(ingredientName);
+  }
+
+  /**
+   * Returns the shared vendor list of every ingredient, keyed in request order. All ingredients are
+   * looked up in the same snapshot.
+   */
+  @Override
+  public Map<String, List<Vendor>> getVendorsByIngredients(List<String> ingredientNames) {
+    IngredientIndex index = ingredientIndex;
+    Map<String, List<Vendor>> vendorsByIngredient =
+        new LinkedHashMap<String, List<Vendor>>(ingredientNames.size() * 2);
+    for (String ingredientName : ingredientNames) {
+      vendorsByIngredient.put(ingredientName, index.getVendors(ingredientName));
     }
+    return vendorsByIngredient;
+  }
 
-    return vendors;
+  /**
+   * Builds a new index from the catalog on the calling thread and swaps it in. Lookups keep using
+   * the current index until the new one is complete, and keep it if the catalog cannot be read.
+   *
+   * @return the version of the new snapshot
+   * @throws UncheckedIOException if the catalog is missing or malformed
+   */
+  public synchronized long reload() {
+    ingredientIndex = loadIndex(catalogPath);
+    return ++catalogVersion;
   }
 
-  private boolean vendorHasItem(String vendorName, String itemName) {
-    JSONArray vendorItemsArray = (JSONArray) vendorToItemsJson.get(vendorName);
-    return vendorItemsArray.contains(itemName);
+  public String getCatalogPath() {
+    return catalogPath;
+  }
+
+  public long getCatalogVersion() {
+    return catalogVersion;
+  }
+
+  public int getCatalogSize() {
+    return ingredientIndex.size();
+  }
+
+  private static IngredientIndex loadIndex(String catalogPath) {
+    IngredientIndex.Builder builder = IngredientIndex.newBuilder();
+    try {
+      if (catalogPath.isEmpty()) {
+        JSONReaderHelper.readVendorItems(SUPPLIER_FILE, builder::addItem);
+      } else {
+        JSONReaderHelper.readVendorItems(Paths.get(catalogPath), builder::addItem);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          "Could not load " + (catalogPath.isEmpty() ? SUPPLIER_FILE : catalogPath), e);
+    }
+    return builder.build();
   }
 }
@@ -0,0 +1,144 @@
+package starterproject.foodsupplier.telemetry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.HttpTextFormat;
+import io.opentelemetry.trace.DefaultSpan;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.Tracer;
+import io.opentelemetry.trace.Tracestate;
+
+/**
+ * The gRPC counterpart of {@link TraceInterceptor}. Extracts the caller's context from the call
+ * metadata, starts a span named after the method, makes it current in every callback of the call
+ * and ends it when the call completes or is cancelled.
+ */
+@Component
+public class GrpcTraceInterceptor implements ServerInterceptor {
+
+  private static final HttpTextFormat.Getter<Metadata> METADATA_GETTER =
+      new HttpTextFormat.Getter<Metadata>() {
+        @Override
+        public String get(Metadata metadata, String key) {
+          return metadata.get(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER));
+        }
+      };
+
+  @Autowired
+  Tracer tracer;
+  @Autowired
+  TraceSampler traceSampler;
+
+  @Override
+  public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+      Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+    String method = call.getMethodDescriptor().getFullMethodName();
+    SpanContext spanContext;
+    Exception extractError = null;
+    try {
+      spanContext = tracer.getHttpTextFormat().extract(headers, METADATA_GETTER);
+    } catch (Exception e) {
+      spanContext = DefaultSpan.getInvalid().getContext();
+      extractError = e;
+    }
+
+    Span span;
+    if (!traceSampler.shouldSample(spanContext, method)) {
+      span = unsampledSpan(spanContext);
+    } else if (extractError == null) {
+      span = tracer.spanBuilder(method).setParent(spanContext).startSpan();
+    } else {
+      span = tracer.spanBuilder(method).startSpan();
+      span.addEvent(extractError.toString());
+      span.setAttribute("error", true);
+    }
+
+    ServerCall<ReqT, RespT> tracedCall = new SimpleForwardingServerCall<ReqT, RespT>(call) {
+      @Override
+      public void close(io.grpc.Status status, Metadata trailers) {
+        if (!status.isOk()) {
+          span.setStatus(Status.ABORTED);
+          span.addEvent(String.format("Call closed with %s", status.getCode()));
+        }
+        super.close(status, trailers);
+      }
+    };
+
+    ServerCall.Listener<ReqT> listener;
+    try (Scope scope = tracer.withSpan(span)) {
+      listener = next.startCall(tracedCall, headers);
+    }
+    return new SimpleForwardingServerCallListener<ReqT>(listener) {
+      @Override
+      public void onMessage(ReqT message) {
+        try (Scope scope = tracer.withSpan(span)) {
+          super.onMessage(message);
+        }
+      }
+
+      @Override
+      public void onHalfClose() {
+        try (Scope scope = tracer.withSpan(span)) {
+          super.onHalfClose();
+        }
+      }
+
+      @Override
+      public void onCancel() {
+        try (Scope scope = tracer.withSpan(span)) {
+          super.onCancel();
+        } finally {
+          span.setStatus(Status.CANCELLED);
+          span.addEvent("Call cancelled");
+          span.end();
+        }
+      }
+
+      @Override
+      public void onComplete() {
+        try (Scope scope = tracer.withSpan(span)) {
+          super.onComplete();
+        } finally {
+          span.end();
+        }
+      }
+
+      @Override
+      public void onReady() {
+        try (Scope scope = tracer.withSpan(span)) {
+          super.onReady();
+        }
+      }
+    };
+  }
+
+  /**
+   * Carries the trace downstream with the sampled flag cleared, as {@link TraceInterceptor} does
+   */
+  private static Span unsampledSpan(SpanContext parentContext) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    TraceId traceId = parentContext.isValid()
+        ? parentContext.getTraceId()
+        : new TraceId(random.nextLong(), random.nextLong());
+    Tracestate tracestate =
+        parentContext.isValid() ? parentContext.getTracestate() : Tracestate.getDefault();
+
+    return DefaultSpan.create(SpanContext.create(traceId, new SpanId(random.nextLong()),
+        TraceFlags.getDefault(), tracestate));
+  }
+}
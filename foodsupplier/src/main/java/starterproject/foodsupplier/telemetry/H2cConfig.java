@@ -0,0 +1,20 @@
+package starterproject.foodsupplier.telemetry;
+
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Accepts cleartext HTTP/2 (h2c) from foodfinder alongside HTTP/1.1 on the same port
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.h2c.enabled", havingValue = "true", matchIfMissing = true)
+public class H2cConfig {
+
+  @Bean
+  public TomcatConnectorCustomizer h2cConnectorCustomizer() {
+    return connector -> connector.addUpgradeProtocol(new Http2Protocol());
+  }
+}
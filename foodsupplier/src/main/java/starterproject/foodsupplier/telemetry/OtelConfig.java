@@ -1,15 +1,20 @@
 package starterproject.foodsupplier.telemetry;
 
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import io.grpc.ManagedChannelBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentelemetry.OpenTelemetry;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.trace.SpanProcessor;
 import io.opentelemetry.sdk.trace.export.SimpleSpansProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
 import io.opentelemetry.trace.Tracer;
 import io.opentelemetry.exporters.jaeger.JaegerGrpcSpanExporter;
 import io.opentelemetry.exporters.logging.*;
@@ -21,20 +26,47 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
     exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
 public class OtelConfig {
 
+  @Value("${otel.span-processor:batch}")
+  String spanProcessor;
+  @Value("${otel.batch.max-queue-size:2048}")
+  int maxQueueSize;
+  @Value("${otel.batch.max-export-batch-size:512}")
+  int maxExportBatchSize;
+  @Value("${otel.batch.schedule-delay-ms:1000}")
+  long scheduleDelayMillis;
+  @Value("${otel.batch.shutdown-timeout-ms:10000}")
+  long shutdownTimeoutMillis;
+
   @Bean
-  public Tracer otelTracer() throws Exception {
+  public Tracer otelTracer(MeterRegistry registry) throws Exception {
     final Tracer tracer = OpenTelemetry.getTracerFactory().get("com.forrest.levelone");
-    SpanProcessor jaegerProcessor = SimpleSpansProcessor
-        .newBuilder(JaegerGrpcSpanExporter.newBuilder().setServiceName("otel_foodsupplier")
+    SpanProcessor jaegerProcessor = newSpanProcessor(registry,
+        JaegerGrpcSpanExporter.newBuilder().setServiceName("otel_foodsupplier")
             .setChannel(ManagedChannelBuilder.forAddress("localhost", 14250).usePlaintext().build())
-            .build())
-        .build();
+            .build());
 
-    SpanProcessor logProcessor = SimpleSpansProcessor.newBuilder(new LoggingExporter()).build();
+    SpanProcessor logProcessor = newSpanProcessor(registry, new LoggingExporter());
 
     OpenTelemetrySdk.getTracerFactory().addSpanProcessor(logProcessor);
     OpenTelemetrySdk.getTracerFactory().addSpanProcessor(jaegerProcessor);
 
     return tracer;
   }
+
+  @PreDestroy
+  public void shutdown() {
+    OpenTelemetrySdk.getTracerFactory().shutdown();
+  }
+
+  /**
+   * Exports synchronously on span end when otel.span-processor is simple, otherwise in batches
+   * from a background thread
+   */
+  private SpanProcessor newSpanProcessor(MeterRegistry registry, SpanExporter spanExporter) {
+    if ("simple".equals(spanProcessor)) {
+      return SimpleSpansProcessor.newBuilder(spanExporter).build();
+    }
+    return new BatchingSpanProcessor(spanExporter, maxQueueSize, maxExportBatchSize,
+        scheduleDelayMillis, shutdownTimeoutMillis, registry);
+  }
 }
@@ -0,0 +1,73 @@
+package starterproject.foodsupplier.telemetry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.opentelemetry.trace.SpanContext;
+
+/**
+ * Samples at most a fixed number of requests per second for each endpoint, allowing short bursts.
+ * Endpoints beyond maxEndpoints share one bucket so that unbounded URIs cannot grow the map.
+ */
+public class RateLimitingSampler implements TraceSampler {
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final int maxEndpoints;
+  private final ConcurrentMap<String, TokenBucket> buckets =
+      new ConcurrentHashMap<String, TokenBucket>();
+  private final TokenBucket overflowBucket;
+
+  /**
+   * @throws IllegalArgumentException if samplesPerSecond is not positive, or so small that the
+   *         burst does not fit in a nanosecond clock
+   */
+  public RateLimitingSampler(double samplesPerSecond, int burst, int maxEndpoints) {
+    if (!(samplesPerSecond > 0)) {
+      throw new IllegalArgumentException(
+          "Samples per second must be positive: " + samplesPerSecond);
+    }
+    this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / samplesPerSecond);
+    // leaves headroom for now - burstNanos + intervalNanos in tryAcquire
+    if (intervalNanos > Long.MAX_VALUE / 4 / Math.max(burst, 1)) {
+      throw new IllegalArgumentException(String.format(
+          "Sampling rate %s per second with burst %d is too low", samplesPerSecond, burst));
+    }
+    this.burstNanos = intervalNanos * Math.max(burst, 1);
+    this.maxEndpoints = maxEndpoints;
+    this.overflowBucket = new TokenBucket();
+  }
+
+  @Override
+  public boolean shouldSample(SpanContext parentContext, String endpoint) {
+    TokenBucket bucket = buckets.get(endpoint);
+    if (bucket == null) {
+      bucket = buckets.size() < maxEndpoints
+          ? buckets.computeIfAbsent(endpoint, key -> new TokenBucket())
+          : overflowBucket;
+    }
+    return bucket.tryAcquire();
+  }
+
+  /**
+   * Lock-free token bucket that tracks the time at which the next token becomes free
+   */
+  private class TokenBucket {
+    private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime() - burstNanos);
+
+    boolean tryAcquire() {
+      long now = System.nanoTime();
+      while (true) {
+        long nextFree = nextFreeNanos.get();
+        long updated = Math.max(nextFree, now - burstNanos) + intervalNanos;
+        if (updated - now > 0) {
+          return false;
+        }
+        if (nextFreeNanos.compareAndSet(nextFree, updated)) {
+          return true;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package starterproject.foodsupplier.telemetry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Builds the request sampler from otel.sampler: always, probability or rate-limited. With
+ * otel.sampler.parent-based the decision of an incoming trace context takes precedence. Any other
+ * sampler name fails startup rather than quietly recording every request.
+ */
+@Configuration
+public class SamplerConfig {
+
+  @Bean
+  public TraceSampler traceSampler(@Value("${otel.sampler:always}") String sampler,
+      @Value("${otel.sampler.probability:1.0}") double probability,
+      @Value("${otel.sampler.rate-per-second:100}") double ratePerSecond,
+      @Value("${otel.sampler.burst:10}") int burst,
+      @Value("${otel.sampler.max-endpoints:100}") int maxEndpoints,
+      @Value("${otel.sampler.parent-based:true}") boolean parentBased) {
+    TraceSampler rootSampler;
+    switch (sampler) {
+      case "probability":
+        rootSampler = new ProbabilitySampler(probability);
+        break;
+      case "rate-limited":
+        rootSampler = new RateLimitingSampler(ratePerSecond, burst, maxEndpoints);
+        break;
+      case "always":
+        rootSampler = new ProbabilitySampler(1.0);
+        break;
+      default:
+        throw new IllegalArgumentException(String.format(
+            "Unknown otel.sampler %s, expected always, probability or rate-limited", sampler));
+    }
+    return parentBased ? new ParentBasedSampler(rootSampler) : rootSampler;
+  }
+}
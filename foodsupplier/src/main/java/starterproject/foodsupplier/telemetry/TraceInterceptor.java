@@ -1,5 +1,7 @@
 package starterproject.foodsupplier.telemetry;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -9,37 +11,55 @@ import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
 import io.opentelemetry.context.propagation.HttpTextFormat;
+import io.opentelemetry.trace.DefaultSpan;
 import io.opentelemetry.trace.Span;
 import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
 import io.opentelemetry.trace.Tracer;
+import io.opentelemetry.trace.Tracestate;
 
 @Component
 public class TraceInterceptor implements HandlerInterceptor {
 
+  private static final HttpTextFormat.Getter<HttpServletRequest> HEADER_GETTER =
+      new HttpTextFormat.Getter<HttpServletRequest>() {
+        @Override
+        public String get(HttpServletRequest req, String key) {
+          return req.getHeader(key);
+        }
+      };
+
   @Autowired
   Tracer tracer;
+  @Autowired
+  TraceSampler traceSampler;
 
   @Override
   public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
       throws Exception {
     HttpTextFormat<SpanContext> textFormat = tracer.getHttpTextFormat();
-    Span span;
+    SpanContext spanContext;
+    Exception extractError = null;
     try {
+      spanContext = textFormat.extract(request, HEADER_GETTER);
+    } catch (Exception e) {
+      spanContext = DefaultSpan.getInvalid().getContext();
+      extractError = e;
+    }
 
-      SpanContext spanContext =
-          textFormat.extract(request, new HttpTextFormat.Getter<HttpServletRequest>() {
-            @Override
-            public String get(HttpServletRequest req, String key) {
-              return req.getHeader(key);
-            }
-          });
+    Span span;
+    if (!traceSampler.shouldSample(spanContext, request.getRequestURI())) {
+      span = unsampledSpan(spanContext);
+    } else if (extractError == null) {
       span = tracer.spanBuilder(request.getRequestURI()).setParent(spanContext).startSpan();
       span.setAttribute("handler", "pre");
-    } catch (Exception e) {
+    } else {
       span = tracer.spanBuilder(request.getRequestURI()).startSpan();
       span.setAttribute("handler", "pre");
 
-      span.addEvent(e.toString());
+      span.addEvent(extractError.toString());
       span.setAttribute("error", true);
     }
     tracer.withSpan(span);
@@ -54,6 +74,9 @@ public class TraceInterceptor implements HandlerInterceptor {
 
     HttpTextFormat<SpanContext> textFormat = tracer.getHttpTextFormat();
     Span currentSpan = tracer.getCurrentSpan();
+    if (currentSpan instanceof DefaultSpan) {
+      return;
+    }
     currentSpan.setAttribute("handler", "post");
     textFormat.inject(currentSpan.getContext(), response,
         new HttpTextFormat.Setter<HttpServletResponse>() {
@@ -66,6 +89,22 @@ public class TraceInterceptor implements HandlerInterceptor {
     System.out.println("Post Handler Called");
   }
 
+  /**
+   * Carries the trace downstream with the sampled flag cleared. Nothing is recorded for the
+   * request, so attributes and events on it are no-ops.
+   */
+  private static Span unsampledSpan(SpanContext parentContext) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    TraceId traceId = parentContext.isValid()
+        ? parentContext.getTraceId()
+        : new TraceId(random.nextLong(), random.nextLong());
+    Tracestate tracestate =
+        parentContext.isValid() ? parentContext.getTracestate() : Tracestate.getDefault();
+
+    return DefaultSpan.create(SpanContext.create(traceId, new SpanId(random.nextLong()),
+        TraceFlags.getDefault(), tracestate));
+  }
+
   @Override
   public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
       Object handler, Exception exception) throws Exception {}
@@ -0,0 +1,15 @@
+package starterproject.foodsupplier.telemetry;
+
+import io.opentelemetry.trace.SpanContext;
+
+/**
+ * Decides in TraceInterceptor whether a request gets a recorded span
+ */
+public interface TraceSampler {
+
+  /**
+   * @param parentContext context extracted from the request headers, invalid when there is none
+   * @param endpoint the request URI
+   */
+  public boolean shouldSample(SpanContext parentContext, String endpoint);
+}
@@ -0,0 +1,78 @@
+package starterproject.foodsupplier.telemetry;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Handles each HTTP request on its own virtual thread when spring.threads.virtual.enabled is true.
+ * Virtual threads need a Java 21 runtime and are created reflectively, on older runtimes Tomcat
+ * keeps its thread pool. GrpcServer runs gRPC calls on a virtual thread executor from here too.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+  private static final Logger LOG = Logger.getLogger(VirtualThreadConfig.class.getName());
+
+  private ExecutorService executor;
+
+  /**
+   * Returns a factory of virtual threads named prefix followed by a counter, or null if the runtime
+   * has no virtual threads
+   */
+  private static ThreadFactory virtualThreadFactory(String prefix) {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+      return (ThreadFactory) ofVirtual.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns an executor that starts a virtual thread per task, or null if the runtime has no
+   * virtual threads
+   */
+  public static ExecutorService newVirtualThreadExecutor(String prefix) {
+    ThreadFactory factory = virtualThreadFactory(prefix);
+    if (factory == null) {
+      LOG.warning(String.format("Virtual threads need Java 21, running on %s",
+          System.getProperty("java.version")));
+      return null;
+    }
+    try {
+      return (ExecutorService) Executors.class
+          .getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadCustomizer() {
+    executor = newVirtualThreadExecutor("http-virtual-");
+    return handler -> {
+      if (executor != null) {
+        handler.setExecutor(executor);
+        LOG.info("Handling requests on virtual threads");
+      }
+    };
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+}
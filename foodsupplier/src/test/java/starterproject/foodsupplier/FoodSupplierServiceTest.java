@@ -1,12 +1,23 @@
 package starterproject.foodsupplier;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 
+import com.fasterxml.jackson.core.JsonParseException;
+
 import starterproject.foodsupplier.data.Vendor;
+import starterproject.foodsupplier.helpers.JSONReaderHelper;
 import starterproject.foodsupplier.services.FoodSupplier;
 import starterproject.foodsupplier.services.FoodSupplierService;
 
@@ -24,4 +35,52 @@ public class FoodSupplierServiceTest {
     List<Vendor> storesWithIngredient = foodSupplier.getVendorsByIngredient(INGREDIENT_NAME);
     assertTrue(storesWithIngredient.stream().anyMatch(vendor -> vendor.equals(test_vendor)));
   }
+
+  @Test
+  public void testGetVendorsByIngredientIsShared() {
+    FoodSupplier foodSupplier = new FoodSupplierService();
+    assertSame(foodSupplier.getVendorsByIngredient(INGREDIENT_NAME),
+        foodSupplier.getVendorsByIngredient(INGREDIENT_NAME));
+    assertTrue(foodSupplier.getVendorsByIngredient("missing").isEmpty());
+  }
+
+  @Test
+  public void testGetVendorsByIngredients() {
+    FoodSupplier foodSupplier = new FoodSupplierService();
+    Map<String, List<Vendor>> vendorsByIngredient =
+        foodSupplier.getVendorsByIngredients(Arrays.asList(INGREDIENT_NAME, "missing"));
+
+    assertEquals(Arrays.asList(INGREDIENT_NAME, "missing"),
+        Arrays.asList(vendorsByIngredient.keySet().toArray()));
+    assertSame(foodSupplier.getVendorsByIngredient(INGREDIENT_NAME),
+        vendorsByIngredient.get(INGREDIENT_NAME));
+    assertTrue(vendorsByIngredient.get("missing").isEmpty());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void testReadVendorItemsRejectsNonStringItem() throws Exception {
+    byte[] json = "{\"shop1\":[\"item1\",2]}".getBytes(StandardCharsets.UTF_8);
+    JSONReaderHelper.readVendorItems(new ByteArrayInputStream(json), "test", json.length,
+        (vendorName, itemName) -> {
+        });
+  }
+
+  @Test
+  public void testReloadSwapsCatalog() throws Exception {
+    Path catalog = Files.createTempFile("suppliers", ".json");
+    try {
+      Files.write(catalog, "{\"shop1\":[\"item1\"]}".getBytes(StandardCharsets.UTF_8));
+      FoodSupplierService foodSupplier = new FoodSupplierService(catalog.toString());
+      List<Vendor> before = foodSupplier.getVendorsByIngredient(INGREDIENT_NAME);
+
+      Files.write(catalog, "{\"shop2\":[\"item1\"]}".getBytes(StandardCharsets.UTF_8));
+      assertEquals(2, foodSupplier.reload());
+
+      assertEquals(Arrays.asList(new Vendor(VENDOR)), before);
+      assertEquals(Arrays.asList(new Vendor("shop2")),
+          foodSupplier.getVendorsByIngredient(INGREDIENT_NAME));
+    } finally {
+      Files.delete(catalog);
+    }
+  }
 }
@@ -0,0 +1,48 @@
+package starterproject.foodsupplier;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import starterproject.foodsupplier.data.NameDictionary;
+
+public class NameDictionaryTest {
+
+  // well past the initial 16 names and 32 buckets, so the arrays grow and the table is rehashed
+  private static final int NAMES = 1000;
+
+  @Test
+  public void testIdsResolveAfterGrowing() {
+    NameDictionary dictionary = new NameDictionary();
+    for (int name = 0; name < NAMES; name++) {
+      assertEquals(name, dictionary.intern("item" + name));
+    }
+
+    assertEquals(NAMES, dictionary.size());
+    for (int name = 0; name < NAMES; name++) {
+      assertEquals(name, dictionary.getId("item" + name));
+      assertEquals("item" + name, dictionary.getName(name));
+    }
+  }
+
+  @Test
+  public void testInternIsIdempotent() {
+    NameDictionary dictionary = new NameDictionary();
+    int id = dictionary.intern("shop1");
+    dictionary.intern("shop2");
+
+    assertEquals(id, dictionary.intern("shop1"));
+    assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void testUnknownNameIsNotFound() {
+    NameDictionary dictionary = new NameDictionary();
+    for (int name = 0; name < NAMES; name++) {
+      dictionary.intern("item" + name);
+    }
+
+    assertEquals(NameDictionary.NOT_FOUND, dictionary.getId("item" + NAMES));
+    assertEquals(NameDictionary.NOT_FOUND, new NameDictionary().getId("item0"));
+  }
+}
@@ -1,9 +1,11 @@
 package starterproject.foodvendor.controllers;
 
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -18,10 +20,11 @@ import starterproject.foodvendor.data.VendorInventory;
 import starterproject.foodvendor.services.FoodVendorService;
 
 /**
- * Serves vendor ingredient data
+ * Serves vendor ingredient data. Reads and writes JSON, or CBOR when the client asks for it.
  */
 @RestController
-@RequestMapping(value = "/foodvendor/vendors")
+@RequestMapping(value = "/foodvendor/vendors",
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 public class FoodVendorController {
   private static final Logger LOG = Logger.getLogger(FoodVendorController.class.getName());
 
@@ -30,7 +33,7 @@ public class FoodVendorController {
   @Autowired
   Tracer tracer;
 
-  @PostMapping
+  @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
   public List<VendorInventory> getIngredientFromVendors(@RequestBody List<Vendor> vendors,
       @RequestParam String ingredientName) {
     Span span = tracer.getCurrentSpan();
@@ -49,4 +52,25 @@ public class FoodVendorController {
     return vendorInventory;
   }
 
+  @PostMapping(value = "batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  public Map<String, List<VendorInventory>> getIngredientsFromVendors(
+      @RequestBody Map<String, List<Vendor>> vendorsByItem) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("FoodVendorController getIngredientsFromVendors");
+    span.setAttribute("ingredients", vendorsByItem.size());
+    LOG.info("FoodVendorController /foodvendor/vendors/batch called span starts");
+
+    Map<String, List<VendorInventory>> vendorInventory = null;
+    try {
+      vendorInventory = foodVendorService.getIngredientsFromVendors(vendorsByItem);
+    } catch (Exception e) {
+      span.setStatus(Status.ABORTED);
+      span.addEvent("Error while calling service");
+      LOG.severe(String.format("Error while calling service: %s", e.getMessage()));
+    }
+
+    return vendorInventory;
+  }
+
 }
@@ -0,0 +1,79 @@
+package starterproject.foodvendor.controllers;
+
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodvendor.data.Reservation;
+import starterproject.foodvendor.services.StockService;
+
+/**
+ * Reserves vendor stock and settles reservations
+ */
+@RestController
+@RequestMapping(value = "/foodvendor/stock/reservations")
+public class StockController {
+  private static final Logger LOG = Logger.getLogger(StockController.class.getName());
+
+  @Autowired
+  private StockService stockService;
+  @Autowired
+  Tracer tracer;
+
+  /**
+   * Returns 201 with the reservation, 404 if the vendor does not stock the item and 409 if there is
+   * not enough stock left
+   */
+  @PostMapping
+  public ResponseEntity<Reservation> reserve(@RequestParam String vendorName,
+      @RequestParam String ingredientName, @RequestParam float quantity) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("StockController reserve");
+
+    try {
+      Reservation reservation = stockService.reserve(vendorName, ingredientName, quantity);
+      if (reservation == null) {
+        span.addEvent("Not enough stock");
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+      }
+      span.setAttribute("reservation.id", reservation.getId());
+      return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    } catch (IllegalArgumentException e) {
+      span.addEvent("Unknown stock");
+      LOG.info(String.format("Rejected reservation: %s", e.getMessage()));
+      return ResponseEntity.notFound().build();
+    } catch (Exception e) {
+      span.setStatus(Status.ABORTED);
+      span.addEvent("Error while calling service");
+      LOG.severe(String.format("Error while calling service: %s", e.getMessage()));
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+  @PostMapping(value = "{reservationId}/commit")
+  public ResponseEntity<Void> commit(@PathVariable long reservationId) {
+    tracer.getCurrentSpan().addEvent("StockController commit");
+    return stockService.commit(reservationId)
+        ? ResponseEntity.noContent().build()
+        : ResponseEntity.notFound().build();
+  }
+
+  @DeleteMapping(value = "{reservationId}")
+  public ResponseEntity<Void> release(@PathVariable long reservationId) {
+    tracer.getCurrentSpan().addEvent("StockController release");
+    return stockService.release(reservationId)
+        ? ResponseEntity.noContent().build()
+        : ResponseEntity.notFound().build();
+  }
+}
@@ -0,0 +1,30 @@
+package starterproject.foodvendor.data;
+
+/**
+ * Read-only inventory keyed by (vendor, item). Entries are addressed by a dense slot number, so an
+ * item id and slot can be resolved once and reused for every column.
+ */
+public interface Inventory {
+  int NOT_FOUND = -1;
+
+  /**
+   * Returns the id of an item, or {@link #NOT_FOUND}. Resolve the item once per request and reuse
+   * the id for every vendor.
+   */
+  int getItemId(String itemName);
+
+  /**
+   * Returns the slot holding the vendor's stock of the item, or {@link #NOT_FOUND}
+   */
+  int getSlot(String vendorName, int itemId);
+
+  float getPrice(int slot);
+
+  float getQuantity(int slot);
+
+  String getCurrency(int slot);
+
+  VendorInventory getInventory(int slot);
+
+  int size();
+}
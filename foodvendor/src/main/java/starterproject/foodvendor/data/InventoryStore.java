@@ -0,0 +1,188 @@
+package starterproject.foodvendor.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only inventory keyed by (vendor, item). Names are interned to dense ids when the store is
+ * built, and prices, quantities and currencies are held in parallel primitive arrays indexed by
+ * slot. Every slot has a prebuilt {@link VendorInventory} that is shared between requests, so
+ * callers must not modify the returned objects.
+ */
+public class InventoryStore implements Inventory {
+  private final NameDictionary vendorIds;
+  private final NameDictionary itemIds;
+
+  // open addressing table from packed (vendor, item) key to slot
+  private final long[] keys;
+  private final int[] keySlots;
+  private final int mask;
+
+  private final float[] prices;
+  private final float[] quantities;
+  private final int[] currencyIds;
+  private final String[] currencies;
+  private final VendorInventory[] inventories;
+
+  private InventoryStore(Builder builder) {
+    int size = builder.size;
+    this.vendorIds = builder.vendorIds;
+    this.itemIds = builder.itemIds;
+    this.prices = Arrays.copyOf(builder.prices, size);
+    this.quantities = Arrays.copyOf(builder.quantities, size);
+    this.currencyIds = Arrays.copyOf(builder.currencyIds, size);
+    this.currencies = new String[builder.currencies.size()];
+    for (int currencyId = 0; currencyId < currencies.length; currencyId++) {
+      currencies[currencyId] = builder.currencies.getName(currencyId);
+    }
+
+    int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+    this.keys = new long[capacity];
+    this.keySlots = new int[capacity];
+    this.mask = capacity - 1;
+    this.inventories = new VendorInventory[size];
+
+    Vendor[] vendors = new Vendor[vendorIds.size()];
+    for (int slot = 0; slot < size; slot++) {
+      int vendorId = builder.vendorOfSlot[slot];
+      int itemId = builder.itemOfSlot[slot];
+      insert(key(vendorId, itemId), slot);
+
+      if (vendors[vendorId] == null) {
+        vendors[vendorId] = new Vendor(vendorIds.getName(vendorId));
+      }
+      Ingredient ingredient = new Ingredient(itemIds.getName(itemId), prices[slot],
+          quantities[slot], currencies[currencyIds[slot]]);
+      inventories[slot] =
+          new VendorInventory(vendors[vendorId], Collections.singletonList(ingredient));
+    }
+  }
+
+  @Override
+  public int getItemId(String itemName) {
+    return itemIds.getId(itemName);
+  }
+
+  @Override
+  public int getSlot(String vendorName, int itemId) {
+    int vendorId = vendorIds.getId(vendorName);
+    if (vendorId == NOT_FOUND || itemId == NOT_FOUND) {
+      return NOT_FOUND;
+    }
+
+    long key = key(vendorId, itemId);
+    for (int index = mix(key) & mask;; index = (index + 1) & mask) {
+      if (keys[index] == key) {
+        return keySlots[index];
+      }
+      if (keys[index] == 0) {
+        return NOT_FOUND;
+      }
+    }
+  }
+
+  @Override
+  public float getPrice(int slot) {
+    return prices[slot];
+  }
+
+  @Override
+  public float getQuantity(int slot) {
+    return quantities[slot];
+  }
+
+  @Override
+  public String getCurrency(int slot) {
+    return currencies[currencyIds[slot]];
+  }
+
+  @Override
+  public VendorInventory getInventory(int slot) {
+    return inventories[slot];
+  }
+
+  @Override
+  public int size() {
+    return inventories.length;
+  }
+
+  private void insert(long key, int slot) {
+    int index = mix(key) & mask;
+    while (keys[index] != 0 && keys[index] != key) {
+      index = (index + 1) & mask;
+    }
+    keys[index] = key;
+    keySlots[index] = slot;
+  }
+
+  // vendor ids are offset by one so that no valid key is 0, which marks an empty bucket
+  static long key(int vendorId, int itemId) {
+    return ((long) (vendorId + 1) << 32) | (itemId & 0xFFFFFFFFL);
+  }
+
+  static int mix(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Collects (vendor, item) stock entries and freezes them into an {@link InventoryStore}. A
+   * repeated (vendor, item) pair overwrites the earlier entry.
+   */
+  public static class Builder {
+    private final NameDictionary vendorIds = new NameDictionary();
+    private final NameDictionary itemIds = new NameDictionary();
+    private final NameDictionary currencies = new NameDictionary();
+    private final Map<Long, Integer> slots = new HashMap<Long, Integer>();
+
+    private int size;
+    private int[] vendorOfSlot = new int[16];
+    private int[] itemOfSlot = new int[16];
+    private float[] prices = new float[16];
+    private float[] quantities = new float[16];
+    private int[] currencyIds = new int[16];
+
+    public Builder addItem(String vendorName, String itemName, float price, float quantity,
+        String currency) {
+      int vendorId = vendorIds.intern(vendorName);
+      int itemId = itemIds.intern(itemName);
+      int currencyId = currencies.intern(currency);
+
+      Integer slot = slots.get(key(vendorId, itemId));
+      if (slot == null) {
+        slot = size++;
+        slots.put(key(vendorId, itemId), slot);
+        ensureCapacity(size);
+      }
+
+      vendorOfSlot[slot] = vendorId;
+      itemOfSlot[slot] = itemId;
+      prices[slot] = price;
+      quantities[slot] = quantity;
+      currencyIds[slot] = currencyId;
+      return this;
+    }
+
+    public InventoryStore build() {
+      return new InventoryStore(this);
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (capacity <= prices.length) {
+        return;
+      }
+      int newLength = prices.length * 2;
+      vendorOfSlot = Arrays.copyOf(vendorOfSlot, newLength);
+      itemOfSlot = Arrays.copyOf(itemOfSlot, newLength);
+      prices = Arrays.copyOf(prices, newLength);
+      quantities = Arrays.copyOf(quantities, newLength);
+      currencyIds = Arrays.copyOf(currencyIds, newLength);
+    }
+  }
+}
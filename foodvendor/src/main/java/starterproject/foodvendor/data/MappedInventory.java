@@ -0,0 +1,359 @@
+package starterproject.foodvendor.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Inventory read in place from a memory-mapped snapshot file. Opening a snapshot only checks its
+ * header, and lookups read names, prices and quantities straight from the mapped region, so the
+ * catalog lives in the page cache instead of on the heap. Unlike {@link InventoryStore}, every
+ * {@link #getInventory} call builds a new result.
+ *
+ * <p>
+ * A snapshot is a header followed by the vendor, item and currency dictionaries, the (vendor, item)
+ * hash table and the slot columns. The header also holds a stamp of the catalog the snapshot was
+ * built from. A dictionary is a hash table of ids followed by the offsets of
+ * the names and the names themselves as a length and UTF-16 chars, so names are compared without
+ * decoding them. All offsets are ints, which limits a snapshot to 2 GB.
+ */
+public class MappedInventory implements Inventory {
+  private static final int MAGIC = 0x46564931;
+  private static final int FORMAT_VERSION = 2;
+  private static final int HEADER_BYTES = 56;
+
+  private final ByteBuffer buffer;
+  private final int size;
+  private final Dictionary vendors;
+  private final Dictionary items;
+  private final String[] currencies;
+  private final long catalogStamp;
+
+  private final int mask;
+  private final int keysOffset;
+  private final int keySlotsOffset;
+  private final int pricesOffset;
+  private final int quantitiesOffset;
+  private final int currencyIdsOffset;
+  private final int vendorOfSlotOffset;
+  private final int itemOfSlotOffset;
+
+  private MappedInventory(ByteBuffer buffer) throws IOException {
+    if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC
+        || buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("Not an inventory snapshot of version " + FORMAT_VERSION);
+    }
+
+    this.buffer = buffer;
+    this.size = buffer.getInt(8);
+    this.catalogStamp = buffer.getLong(48);
+    this.pricesOffset = buffer.getInt(44);
+    if ((long) pricesOffset + 20L * size > buffer.capacity()) {
+      throw new IOException("Truncated inventory snapshot");
+    }
+
+    this.vendors = new Dictionary(buffer, buffer.getInt(28));
+    this.items = new Dictionary(buffer, buffer.getInt(32));
+
+    // a handful of currencies, decoding them once saves a String per lookup
+    Dictionary currencyNames = new Dictionary(buffer, buffer.getInt(36));
+    this.currencies = new String[buffer.getInt(20)];
+    for (int currencyId = 0; currencyId < currencies.length; currencyId++) {
+      currencies[currencyId] = currencyNames.getName(currencyId);
+    }
+
+    int tableCapacity = buffer.getInt(24);
+    this.mask = tableCapacity - 1;
+    this.keysOffset = buffer.getInt(40);
+    this.keySlotsOffset = keysOffset + 8 * tableCapacity;
+    this.quantitiesOffset = pricesOffset + 4 * size;
+    this.currencyIdsOffset = quantitiesOffset + 4 * size;
+    this.vendorOfSlotOffset = currencyIdsOffset + 4 * size;
+    this.itemOfSlotOffset = vendorOfSlotOffset + 4 * size;
+  }
+
+  /**
+   * Maps a snapshot written by {@link #write}. The mapping stays valid after the snapshot file is
+   * replaced, so a new snapshot can be written while this one is being read.
+   *
+   * @throws IOException if the file is not a complete snapshot of this format version
+   */
+  public static MappedInventory open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Inventory snapshot larger than 2 GB: " + file);
+      }
+      return new MappedInventory(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Returns the stamp of the catalog the snapshot was built from, as passed to {@link #write}
+   */
+  public long getCatalogStamp() {
+    return catalogStamp;
+  }
+
+  @Override
+  public int getItemId(String itemName) {
+    return items.getId(itemName);
+  }
+
+  @Override
+  public int getSlot(String vendorName, int itemId) {
+    int vendorId = vendors.getId(vendorName);
+    if (vendorId == NOT_FOUND || itemId == NOT_FOUND) {
+      return NOT_FOUND;
+    }
+
+    long key = InventoryStore.key(vendorId, itemId);
+    for (int index = InventoryStore.mix(key) & mask;; index = (index + 1) & mask) {
+      long bucket = buffer.getLong(keysOffset + 8 * index);
+      if (bucket == key) {
+        return buffer.getInt(keySlotsOffset + 4 * index);
+      }
+      if (bucket == 0) {
+        return NOT_FOUND;
+      }
+    }
+  }
+
+  @Override
+  public float getPrice(int slot) {
+    return buffer.getFloat(pricesOffset + 4 * slot);
+  }
+
+  @Override
+  public float getQuantity(int slot) {
+    return buffer.getFloat(quantitiesOffset + 4 * slot);
+  }
+
+  @Override
+  public String getCurrency(int slot) {
+    return currencies[buffer.getInt(currencyIdsOffset + 4 * slot)];
+  }
+
+  @Override
+  public VendorInventory getInventory(int slot) {
+    Vendor vendor = new Vendor(vendors.getName(buffer.getInt(vendorOfSlotOffset + 4 * slot)));
+    String itemName = items.getName(buffer.getInt(itemOfSlotOffset + 4 * slot));
+    Ingredient ingredient =
+        new Ingredient(itemName, getPrice(slot), getQuantity(slot), getCurrency(slot));
+    return new VendorInventory(vendor, Collections.singletonList(ingredient));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Writes the inventory as a snapshot. The snapshot is written next to the target and moved over
+   * it, so readers of an existing snapshot never see a partly written file.
+   */
+  public static void write(Inventory inventory, Path file) throws IOException {
+    write(inventory, file, 0);
+  }
+
+  /**
+   * Writes the inventory as a snapshot that records the stamp of its catalog, so a reader can tell
+   * whether the snapshot is still current
+   */
+  public static void write(Inventory inventory, Path file, long catalogStamp) throws IOException {
+    int size = inventory.size();
+    Map<String, Integer> vendorIds = new LinkedHashMap<String, Integer>();
+    Map<String, Integer> itemIds = new LinkedHashMap<String, Integer>();
+    Map<String, Integer> currencyIds = new LinkedHashMap<String, Integer>();
+    int[] vendorOfSlot = new int[size];
+    int[] itemOfSlot = new int[size];
+    int[] currencyOfSlot = new int[size];
+    for (int slot = 0; slot < size; slot++) {
+      VendorInventory vendorInventory = inventory.getInventory(slot);
+      vendorOfSlot[slot] = id(vendorIds, vendorInventory.getVendor().getName());
+      itemOfSlot[slot] = id(itemIds, vendorInventory.getIngredients().get(0).getName());
+      currencyOfSlot[slot] = id(currencyIds, inventory.getCurrency(slot));
+    }
+
+    int tableCapacity = capacity(size);
+    long vendorsOffset = HEADER_BYTES;
+    long itemsOffset = vendorsOffset + Dictionary.bytes(vendorIds.keySet());
+    long currenciesOffset = itemsOffset + Dictionary.bytes(itemIds.keySet());
+    long keysOffset = align(currenciesOffset + Dictionary.bytes(currencyIds.keySet()));
+    long pricesOffset = keysOffset + 12L * tableCapacity;
+    long length = pricesOffset + 20L * size;
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Inventory too large for a snapshot: " + length + " bytes");
+    }
+
+    Path directory = file.toAbsolutePath().getParent();
+    Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+
+        Dictionary.write(buffer, (int) vendorsOffset, vendorIds.keySet());
+        Dictionary.write(buffer, (int) itemsOffset, itemIds.keySet());
+        Dictionary.write(buffer, (int) currenciesOffset, currencyIds.keySet());
+
+        int keySlotsOffset = (int) keysOffset + 8 * tableCapacity;
+        int mask = tableCapacity - 1;
+        for (int slot = 0; slot < size; slot++) {
+          long key = InventoryStore.key(vendorOfSlot[slot], itemOfSlot[slot]);
+          int index = InventoryStore.mix(key) & mask;
+          while (buffer.getLong((int) keysOffset + 8 * index) != 0) {
+            index = (index + 1) & mask;
+          }
+          buffer.putLong((int) keysOffset + 8 * index, key);
+          buffer.putInt(keySlotsOffset + 4 * index, slot);
+        }
+
+        for (int slot = 0; slot < size; slot++) {
+          int offset = (int) pricesOffset + 4 * slot;
+          buffer.putFloat(offset, inventory.getPrice(slot));
+          buffer.putFloat(offset + 4 * size, inventory.getQuantity(slot));
+          buffer.putInt(offset + 8 * size, currencyOfSlot[slot]);
+          buffer.putInt(offset + 12 * size, vendorOfSlot[slot]);
+          buffer.putInt(offset + 16 * size, itemOfSlot[slot]);
+        }
+
+        // the header goes last, a crash before this leaves a file that open rejects
+        buffer.putInt(8, size);
+        buffer.putInt(12, vendorIds.size());
+        buffer.putInt(16, itemIds.size());
+        buffer.putInt(20, currencyIds.size());
+        buffer.putInt(24, tableCapacity);
+        buffer.putInt(28, (int) vendorsOffset);
+        buffer.putInt(32, (int) itemsOffset);
+        buffer.putInt(36, (int) currenciesOffset);
+        buffer.putInt(40, (int) keysOffset);
+        buffer.putInt(44, (int) pricesOffset);
+        buffer.putLong(48, catalogStamp);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(0, MAGIC);
+        buffer.force();
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tempFile);
+      throw e;
+    }
+  }
+
+  private static int id(Map<String, Integer> ids, String name) {
+    return ids.computeIfAbsent(name, key -> ids.size());
+  }
+
+  // at most half full, so probes stay short
+  private static int capacity(int size) {
+    return Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+  }
+
+  private static long align(long offset) {
+    return (offset + 7) & ~7L;
+  }
+
+  /**
+   * Name to id table read in place. A name of length -1 is null.
+   */
+  private static final class Dictionary {
+    private final ByteBuffer buffer;
+    private final int mask;
+    private final int bucketsOffset;
+    private final int nameOffsetsOffset;
+
+    Dictionary(ByteBuffer buffer, int offset) {
+      int capacity = buffer.getInt(offset);
+      this.buffer = buffer;
+      this.mask = capacity - 1;
+      this.bucketsOffset = offset + 4;
+      this.nameOffsetsOffset = bucketsOffset + 4 * capacity;
+    }
+
+    int getId(String name) {
+      for (int index = hash(name) & mask;; index = (index + 1) & mask) {
+        int bucket = buffer.getInt(bucketsOffset + 4 * index);
+        if (bucket == 0) {
+          return NOT_FOUND;
+        }
+        if (nameEquals(buffer.getInt(nameOffsetsOffset + 4 * (bucket - 1)), name)) {
+          return bucket - 1;
+        }
+      }
+    }
+
+    String getName(int id) {
+      int offset = buffer.getInt(nameOffsetsOffset + 4 * id);
+      int length = buffer.getInt(offset);
+      if (length < 0) {
+        return null;
+      }
+      char[] chars = new char[length];
+      for (int index = 0; index < length; index++) {
+        chars[index] = buffer.getChar(offset + 4 + 2 * index);
+      }
+      return new String(chars);
+    }
+
+    private boolean nameEquals(int offset, String name) {
+      int length = buffer.getInt(offset);
+      if (name == null || length != name.length()) {
+        return name == null && length < 0;
+      }
+      for (int index = 0; index < length; index++) {
+        if (buffer.getChar(offset + 4 + 2 * index) != name.charAt(index)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    static long bytes(Collection<String> names) {
+      long bytes = 4 + 4L * capacity(names.size()) + 4L * names.size();
+      for (String name : names) {
+        bytes += 4 + 2L * (name == null ? 0 : name.length());
+      }
+      return bytes;
+    }
+
+    static void write(ByteBuffer buffer, int offset, Collection<String> names) {
+      int capacity = capacity(names.size());
+      int mask = capacity - 1;
+      int bucketsOffset = offset + 4;
+      int nameOffsetsOffset = bucketsOffset + 4 * capacity;
+      int nameOffset = nameOffsetsOffset + 4 * names.size();
+      buffer.putInt(offset, capacity);
+
+      int id = 0;
+      for (String name : names) {
+        buffer.putInt(nameOffsetsOffset + 4 * id, nameOffset);
+        buffer.putInt(nameOffset, name == null ? -1 : name.length());
+        for (int index = 0; name != null && index < name.length(); index++) {
+          buffer.putChar(nameOffset + 4 + 2 * index, name.charAt(index));
+        }
+        nameOffset += 4 + 2 * (name == null ? 0 : name.length());
+
+        int index = hash(name) & mask;
+        while (buffer.getInt(bucketsOffset + 4 * index) != 0) {
+          index = (index + 1) & mask;
+        }
+        buffer.putInt(bucketsOffset + 4 * index, ++id);
+      }
+    }
+
+    private static int hash(String name) {
+      return InventoryStore.mix(Objects.hashCode(name));
+    }
+  }
+}
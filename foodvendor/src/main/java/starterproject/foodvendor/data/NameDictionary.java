@@ -0,0 +1,85 @@
+package starterproject.foodvendor.data;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Assigns dense int ids to names in the order they are first interned, so ids can index parallel
+ * arrays. Names and their hashes are kept in arrays and looked up through an open addressing table
+ * of ids, which avoids the boxed keys and entry objects of a HashMap. A dictionary is filled by one
+ * thread and must be safely published before it is shared; lookups never modify it.
+ */
+public class NameDictionary {
+  public static final int NOT_FOUND = -1;
+
+  private String[] names = new String[16];
+  private int[] hashes = new int[16];
+  // id + 1 per bucket, 0 marks an empty bucket
+  private int[] buckets = new int[32];
+  private int size;
+
+  public int getId(String name) {
+    int hash = hash(name);
+    int mask = buckets.length - 1;
+    for (int index = hash & mask;; index = (index + 1) & mask) {
+      int bucket = buckets[index];
+      if (bucket == 0) {
+        return NOT_FOUND;
+      }
+      int id = bucket - 1;
+      if (hashes[id] == hash && Objects.equals(names[id], name)) {
+        return id;
+      }
+    }
+  }
+
+  /**
+   * Returns the id of the name, assigning the next id if the name is new
+   */
+  public int intern(String name) {
+    int id = getId(name);
+    if (id != NOT_FOUND) {
+      return id;
+    }
+
+    id = size++;
+    if (id == names.length) {
+      names = Arrays.copyOf(names, id * 2);
+      hashes = Arrays.copyOf(hashes, id * 2);
+    }
+    names[id] = name;
+    hashes[id] = hash(name);
+    if (size * 2 > buckets.length) {
+      buckets = new int[buckets.length * 2];
+      for (int rehashed = 0; rehashed < size; rehashed++) {
+        insert(rehashed);
+      }
+    } else {
+      insert(id);
+    }
+    return id;
+  }
+
+  public String getName(int id) {
+    return names[id];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private void insert(int id) {
+    int mask = buckets.length - 1;
+    int index = hashes[id] & mask;
+    while (buckets[index] != 0) {
+      index = (index + 1) & mask;
+    }
+    buckets[index] = id + 1;
+  }
+
+  // names like item1 and item2 have neighbouring hash codes, spread them so probes do not cluster
+  private static int hash(String name) {
+    int hash = Objects.hashCode(name) * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
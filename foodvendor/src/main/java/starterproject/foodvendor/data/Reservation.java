@@ -0,0 +1,26 @@
+package starterproject.foodvendor.data;
+
+import lombok.Data;
+
+@Data
+public class Reservation {
+
+  private long id;
+  private String vendorName;
+  private String itemName;
+  private float quantity;
+  private long expiresAtMillis;
+
+  public Reservation() {
+
+  }
+
+  public Reservation(long id, String vendorName, String itemName, float quantity,
+      long expiresAtMillis) {
+    this.id = id;
+    this.vendorName = vendorName;
+    this.itemName = itemName;
+    this.quantity = quantity;
+    this.expiresAtMillis = expiresAtMillis;
+  }
+}
@@ -0,0 +1,49 @@
+package starterproject.foodvendor.data;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Receives every change of a {@link StockLedger} in the order it was applied. Changes to one
+ * (vendor, item) are reported under that item's stripe lock and a reset under every stripe, so
+ * implementations only need to keep the order in which they are called. The returned future
+ * completes once the change is as durable as the journal promises, and the ledger waits for it
+ * after releasing its locks.
+ */
+public interface StockJournal {
+  CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+  StockJournal NONE = new StockJournal() {
+    @Override
+    public CompletableFuture<Void> reserved(long reservationId, String vendorName, String itemName,
+        long units, long expiresAtMillis) {
+      return DONE;
+    }
+
+    @Override
+    public CompletableFuture<Void> committed(long reservationId) {
+      return DONE;
+    }
+
+    @Override
+    public CompletableFuture<Void> released(long reservationId) {
+      return DONE;
+    }
+
+    @Override
+    public CompletableFuture<Void> reset() {
+      return DONE;
+    }
+  };
+
+  CompletableFuture<Void> reserved(long reservationId, String vendorName, String itemName,
+      long units, long expiresAtMillis);
+
+  CompletableFuture<Void> committed(long reservationId);
+
+  CompletableFuture<Void> released(long reservationId);
+
+  /**
+   * The ledger was rebuilt from a new catalog
+   */
+  CompletableFuture<Void> reset();
+}
@@ -0,0 +1,428 @@
+package starterproject.foodvendor.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Live stock on top of a read-only {@link Inventory}. Quantities are counted in thousandths of a
+ * unit so reservations add up exactly. A reservation takes stock immediately and is then either
+ * committed, which keeps the stock taken, or released, which returns it.
+ *
+ * <p>
+ * Every (vendor, item) is guarded by one of a fixed set of striped locks, so reservations of
+ * different items proceed in parallel and a single item can never be oversold. Counters are read
+ * without locking. Swapping in a new catalog takes every stripe, so outstanding reservations are
+ * carried over to the new counters exactly once. Changes are reported to a {@link StockJournal},
+ * and callers return once the journal has made them durable.
+ *
+ * <p>
+ * Counters hold only the change from the catalog quantity, in pages allocated on the first change
+ * to one of their items. A ledger over a mapped catalog starts without a pass over the catalog and
+ * costs no heap per item until stock moves.
+ */
+public class StockLedger {
+  private static final int STRIPES = 64;
+  private static final long UNITS_PER_QUANTITY = 1000;
+
+  private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+  private final Map<Long, Hold> holds = new ConcurrentHashMap<Long, Hold>();
+  private final AtomicLong nextReservationId = new AtomicLong();
+  private volatile Stock stock;
+  private volatile StockJournal journal = StockJournal.NONE;
+
+  public StockLedger(Inventory inventory) {
+    for (int stripe = 0; stripe < STRIPES; stripe++) {
+      stripes[stripe] = new ReentrantLock();
+    }
+    this.stock = new Stock(inventory);
+  }
+
+  /**
+   * Returns the current catalog with its live counters. Resolve slots and read quantities from the
+   * same stock so they stay consistent across a reload.
+   */
+  public Stock getStock() {
+    return stock;
+  }
+
+  /**
+   * Reports all later changes to the journal. Set it after recovering the ledger and before the
+   * ledger is shared.
+   */
+  public void setJournal(StockJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Takes the quantity from the vendor's stock of the item until the reservation is committed,
+   * released or expires.
+   *
+   * @return the reservation, or null if there is not enough stock
+   * @throws IllegalArgumentException if the vendor does not stock the item or the quantity is not
+   *         positive
+   */
+  public Reservation reserve(String vendorName, String itemName, float quantity,
+      long expiresAtMillis) {
+    long units = toUnits(quantity);
+    if (units <= 0) {
+      throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+    }
+
+    Hold hold;
+    CompletableFuture<Void> durable;
+    ReentrantLock lock = stripe(vendorName, itemName);
+    lock.lock();
+    try {
+      Stock current = stock;
+      int slot = current.getSlot(vendorName, itemName);
+      if (slot == Inventory.NOT_FOUND) {
+        throw new IllegalArgumentException(
+            String.format("%s does not stock %s", vendorName, itemName));
+      }
+      if (current.getUnits(slot) < units) {
+        return null;
+      }
+      current.addUnits(slot, -units);
+
+      hold = new Hold(nextReservationId.incrementAndGet(), vendorName, itemName, units,
+          expiresAtMillis);
+      holds.put(hold.id, hold);
+      durable = journal.reserved(hold.id, vendorName, itemName, units, expiresAtMillis);
+    } finally {
+      lock.unlock();
+    }
+
+    durable.join();
+    return hold.toReservation();
+  }
+
+  /**
+   * Keeps the reserved stock taken
+   *
+   * @return false if the reservation is unknown, already settled or expired
+   */
+  public boolean commit(long reservationId) {
+    return settle(reservationId, false);
+  }
+
+  /**
+   * Returns the reserved stock
+   *
+   * @return false if the reservation is unknown, already settled or expired
+   */
+  public boolean release(long reservationId) {
+    return settle(reservationId, true);
+  }
+
+  /**
+   * Releases every reservation that expired before the given time
+   *
+   * @return the number of released reservations
+   */
+  public int releaseExpired(long nowMillis) {
+    int released = 0;
+    for (Hold hold : holds.values()) {
+      if (hold.expiresAtMillis < nowMillis && release(hold.id)) {
+        released++;
+      }
+    }
+    return released;
+  }
+
+  public int getOpenReservations() {
+    return holds.size();
+  }
+
+  /**
+   * Replaces the catalog. New counters start from the catalog quantities minus the outstanding
+   * reservations, which may leave an item below zero until it is restocked.
+   */
+  public void swap(Inventory inventory) {
+    CompletableFuture<Void> durable;
+    lockAll();
+    try {
+      rebuild(inventory);
+      durable = journal.reset();
+    } finally {
+      unlockAll();
+    }
+    durable.join();
+  }
+
+  private boolean settle(long reservationId, boolean returnStock) {
+    Hold hold = holds.get(reservationId);
+    if (hold == null) {
+      return false;
+    }
+
+    CompletableFuture<Void> durable;
+    ReentrantLock lock = stripe(hold.vendorName, hold.itemName);
+    lock.lock();
+    try {
+      if (!holds.remove(reservationId, hold)) {
+        return false;
+      }
+      if (returnStock) {
+        addUnits(hold.vendorName, hold.itemName, hold.units);
+        durable = journal.released(reservationId);
+      } else {
+        durable = journal.committed(reservationId);
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    durable.join();
+    return true;
+  }
+
+  private void rebuild(Inventory inventory) {
+    Stock replacement = new Stock(inventory);
+    for (Hold hold : holds.values()) {
+      int slot = replacement.getSlot(hold.vendorName, hold.itemName);
+      if (slot != Inventory.NOT_FOUND) {
+        replacement.addUnits(slot, -hold.units);
+      }
+    }
+    stock = replacement;
+  }
+
+  private void addUnits(String vendorName, String itemName, long units) {
+    Stock current = stock;
+    int slot = current.getSlot(vendorName, itemName);
+    if (slot != Inventory.NOT_FOUND) {
+      current.addUnits(slot, units);
+    }
+  }
+
+  /**
+   * Captures the counters that differ from the catalog and the open reservations. Every stripe is
+   * held while the journal position is taken, so the capture matches that position exactly.
+   */
+  Checkpoint capture(LongSupplier journalPosition) {
+    lockAll();
+    try {
+      Checkpoint checkpoint =
+          new Checkpoint(journalPosition.getAsLong(), nextReservationId.get(), holds.values());
+      Stock current = stock;
+      current.forEachChanged(slot -> {
+        VendorInventory entry = current.inventory.getInventory(slot);
+        checkpoint.changes.add(new Change(entry.getVendor().getName(),
+            entry.getIngredients().get(0).getName(), current.getUnits(slot)));
+      });
+      return checkpoint;
+    } finally {
+      unlockAll();
+    }
+  }
+
+  // the restore methods replay a checkpoint and journal, before the ledger is shared
+
+  void restoreUnits(String vendorName, String itemName, long units) {
+    Stock current = stock;
+    int slot = current.getSlot(vendorName, itemName);
+    if (slot != Inventory.NOT_FOUND) {
+      current.setUnits(slot, units);
+    }
+  }
+
+  void restoreReserved(long reservationId, String vendorName, String itemName, long units,
+      long expiresAtMillis, boolean takeStock) {
+    holds.put(reservationId,
+        new Hold(reservationId, vendorName, itemName, units, expiresAtMillis));
+    nextReservationId.accumulateAndGet(reservationId, Math::max);
+    if (takeStock) {
+      addUnits(vendorName, itemName, -units);
+    }
+  }
+
+  void restoreSettled(long reservationId, boolean returnStock) {
+    Hold hold = holds.remove(reservationId);
+    if (hold != null && returnStock) {
+      addUnits(hold.vendorName, hold.itemName, hold.units);
+    }
+  }
+
+  void restoreReset() {
+    rebuild(stock.inventory);
+  }
+
+  void restoreNextReservationId(long reservationId) {
+    nextReservationId.accumulateAndGet(reservationId, Math::max);
+  }
+
+  private void lockAll() {
+    for (ReentrantLock lock : stripes) {
+      lock.lock();
+    }
+  }
+
+  private void unlockAll() {
+    for (ReentrantLock lock : stripes) {
+      lock.unlock();
+    }
+  }
+
+  private ReentrantLock stripe(String vendorName, String itemName) {
+    int hash = (vendorName.hashCode() * 31 + itemName.hashCode()) * 0x9E3779B9;
+    return stripes[(hash >>> 16) & (STRIPES - 1)];
+  }
+
+  static long toUnits(float quantity) {
+    return Math.round((double) quantity * UNITS_PER_QUANTITY);
+  }
+
+  static float toQuantity(long units) {
+    return (float) units / UNITS_PER_QUANTITY;
+  }
+
+  /**
+   * A catalog and the live counters of its slots
+   */
+  public static final class Stock {
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    private final Inventory inventory;
+    // units taken from the catalog quantity of each slot, a page is allocated on its first change
+    private final AtomicReferenceArray<AtomicLongArray> taken;
+
+    private Stock(Inventory inventory) {
+      this.inventory = inventory;
+      this.taken = new AtomicReferenceArray<AtomicLongArray>(
+          (inventory.size() + PAGE_SIZE - 1) >>> PAGE_SHIFT);
+    }
+
+    public Inventory getInventory() {
+      return inventory;
+    }
+
+    /**
+     * Returns the quantity that can still be reserved, never less than zero
+     */
+    public float getAvailable(int slot) {
+      return toQuantity(Math.max(getUnits(slot), 0));
+    }
+
+    /**
+     * Returns the inventory entry with the live quantity. The shared catalog entry is returned
+     * while the quantity is unchanged, so only items with reservations cost an allocation.
+     */
+    public VendorInventory getVendorInventory(int slot) {
+      VendorInventory catalogEntry = inventory.getInventory(slot);
+      if (getTaken(slot) == 0) {
+        return catalogEntry;
+      }
+
+      float quantity = getAvailable(slot);
+      List<Ingredient> ingredients = new ArrayList<Ingredient>(1);
+      for (Ingredient ingredient : catalogEntry.getIngredients()) {
+        ingredients.add(new Ingredient(ingredient.getName(), ingredient.getPrice(), quantity,
+            ingredient.getCurrency()));
+      }
+      return new VendorInventory(catalogEntry.getVendor(),
+          Collections.unmodifiableList(ingredients));
+    }
+
+    private long getUnits(int slot) {
+      return toUnits(inventory.getQuantity(slot)) - getTaken(slot);
+    }
+
+    private void addUnits(int slot, long units) {
+      page(slot).addAndGet(slot & (PAGE_SIZE - 1), -units);
+    }
+
+    private void setUnits(int slot, long units) {
+      page(slot).set(slot & (PAGE_SIZE - 1), toUnits(inventory.getQuantity(slot)) - units);
+    }
+
+    private long getTaken(int slot) {
+      AtomicLongArray page = taken.get(slot >>> PAGE_SHIFT);
+      return page == null ? 0 : page.get(slot & (PAGE_SIZE - 1));
+    }
+
+    private AtomicLongArray page(int slot) {
+      int index = slot >>> PAGE_SHIFT;
+      AtomicLongArray page = taken.get(index);
+      if (page == null) {
+        taken.compareAndSet(index, null, new AtomicLongArray(PAGE_SIZE));
+        page = taken.get(index);
+      }
+      return page;
+    }
+
+    private void forEachChanged(IntConsumer action) {
+      for (int index = 0; index < taken.length(); index++) {
+        AtomicLongArray page = taken.get(index);
+        for (int offset = 0; page != null && offset < PAGE_SIZE; offset++) {
+          if (page.get(offset) != 0) {
+            action.accept((index << PAGE_SHIFT) + offset);
+          }
+        }
+      }
+    }
+
+    private int getSlot(String vendorName, String itemName) {
+      return inventory.getSlot(vendorName, inventory.getItemId(itemName));
+    }
+  }
+
+  /**
+   * The ledger state at one journal position
+   */
+  static final class Checkpoint {
+    final long position;
+    final long nextReservationId;
+    final List<Hold> holds;
+    final List<Change> changes = new ArrayList<Change>();
+
+    Checkpoint(long position, long nextReservationId, Iterable<Hold> openHolds) {
+      this.position = position;
+      this.nextReservationId = nextReservationId;
+      this.holds = new ArrayList<Hold>();
+      openHolds.forEach(holds::add);
+    }
+  }
+
+  static final class Change {
+    final String vendorName;
+    final String itemName;
+    final long units;
+
+    Change(String vendorName, String itemName, long units) {
+      this.vendorName = vendorName;
+      this.itemName = itemName;
+      this.units = units;
+    }
+  }
+
+  static final class Hold {
+    final long id;
+    final String vendorName;
+    final String itemName;
+    final long units;
+    final long expiresAtMillis;
+
+    Hold(long id, String vendorName, String itemName, long units, long expiresAtMillis) {
+      this.id = id;
+      this.vendorName = vendorName;
+      this.itemName = itemName;
+      this.units = units;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+
+    Reservation toReservation() {
+      return new Reservation(id, vendorName, itemName, toQuantity(units), expiresAtMillis);
+    }
+  }
+}
@@ -0,0 +1,487 @@
+package starterproject.foodvendor.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only log of {@link StockLedger} changes with periodic checkpoints. Changes are appended by
+ * one writer thread that takes everything queued since its last write, so concurrent changes share
+ * a write and an fsync. How often the log is synced trades the window of changes a crash can lose
+ * against throughput:
+ * <ul>
+ * <li>ALWAYS syncs every batch and callers wait for it, so nothing acknowledged is lost</li>
+ * <li>INTERVAL syncs at most every sync interval and callers do not wait</li>
+ * <li>NONE leaves syncing to the operating system</li>
+ * </ul>
+ *
+ * <p>
+ * The log is split into segments named after their first position. A checkpoint stores the ledger
+ * state at a position and starts a new segment there, after which older segments are deleted.
+ * Recovery loads the latest checkpoint and replays the later records. Records carry a CRC, so a
+ * torn write at the end of the last segment is dropped.
+ */
+public class StockWriteAheadLog implements StockJournal, Closeable {
+  private static final Logger LOG = Logger.getLogger(StockWriteAheadLog.class.getName());
+
+  public enum SyncMode {
+    ALWAYS, INTERVAL, NONE
+  }
+
+  private static final byte RESERVED = 1;
+  private static final byte COMMITTED = 2;
+  private static final byte RELEASED = 3;
+  private static final byte RESET = 4;
+
+  private static final int CHECKPOINT_MAGIC = 0x46564350;
+  private static final String CHECKPOINT_FILE = "stock.checkpoint";
+  private static final String SEGMENT_PREFIX = "stock-";
+  private static final String SEGMENT_SUFFIX = ".wal";
+  private static final int MAX_RECORD_BYTES = 1 << 20;
+
+  private final Path directory;
+  private final SyncMode syncMode;
+  private final long syncIntervalNanos;
+  private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<Entry>();
+  private final AtomicLong position = new AtomicLong();
+  private final Thread writer;
+  private volatile boolean closed;
+  private volatile IOException failure;
+
+  // owned by the writer thread once it starts
+  private FileChannel segment;
+
+  /**
+   * Replays the checkpoint and log in the directory into the ledger and starts appending its
+   * changes. The ledger must not be shared before this returns.
+   */
+  public static StockWriteAheadLog open(Path directory, StockLedger ledger, SyncMode syncMode,
+      long syncIntervalMillis) throws IOException {
+    Files.createDirectories(directory);
+    StockWriteAheadLog log = new StockWriteAheadLog(directory, syncMode, syncIntervalMillis);
+    log.recover(ledger);
+    ledger.setJournal(log);
+    log.writer.start();
+    return log;
+  }
+
+  private StockWriteAheadLog(Path directory, SyncMode syncMode, long syncIntervalMillis) {
+    this.directory = directory;
+    this.syncMode = syncMode;
+    this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+    this.writer = new Thread(this::write, "stock-wal-writer");
+    writer.setDaemon(true);
+  }
+
+  @Override
+  public CompletableFuture<Void> reserved(long reservationId, String vendorName, String itemName,
+      long units, long expiresAtMillis) {
+    return append(RESERVED, out -> {
+      out.writeLong(reservationId);
+      out.writeUTF(vendorName);
+      out.writeUTF(itemName);
+      out.writeLong(units);
+      out.writeLong(expiresAtMillis);
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> committed(long reservationId) {
+    return append(COMMITTED, out -> out.writeLong(reservationId));
+  }
+
+  @Override
+  public CompletableFuture<Void> released(long reservationId) {
+    return append(RELEASED, out -> out.writeLong(reservationId));
+  }
+
+  @Override
+  public CompletableFuture<Void> reset() {
+    return append(RESET, out -> {
+    });
+  }
+
+  /**
+   * Writes the ledger state as the new checkpoint and deletes the log segments it covers
+   */
+  public synchronized void checkpoint(StockLedger ledger) throws IOException {
+    if (failure != null) {
+      throw new IOException("Stock log failed", failure);
+    }
+    Entry[] roll = new Entry[1];
+    StockLedger.Checkpoint checkpoint = ledger.capture(() -> {
+      long rollPosition = position.get();
+      roll[0] = new Entry(rollPosition, null, new CompletableFuture<Void>());
+      queue.add(roll[0]);
+      return rollPosition;
+    });
+    if (failure != null) {
+      failQueued();
+    }
+
+    Path tempFile = Files.createTempFile(directory, CHECKPOINT_FILE, ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+        CheckedOutputStream checked = new CheckedOutputStream(
+            new BufferedOutputStream(Channels.newOutputStream(channel)),
+            new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+        writeCheckpoint(out, checkpoint);
+        out.writeLong(checked.getChecksum().getValue());
+        out.flush();
+        channel.force(true);
+      }
+      Files.move(tempFile, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tempFile);
+      throw e;
+    }
+
+    // the writer has moved past the covered segments once it has rolled
+    try {
+      roll[0].durable.join();
+    } catch (CompletionException e) {
+      throw new IOException("Stock log failed before rolling", e.getCause());
+    }
+    for (Path covered : segments()) {
+      if (segmentStart(covered) <= checkpoint.position) {
+        Files.delete(covered);
+      }
+    }
+    LOG.info(String.format("Checkpointed stock at position %d with %d changed items",
+        checkpoint.position, checkpoint.changes.size()));
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private CompletableFuture<Void> append(byte type, RecordWriter fields) {
+    if (failure != null) {
+      throw new UncheckedIOException("Stock log failed", failure);
+    }
+    if (closed) {
+      throw new IllegalStateException("Stock log is closed");
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    DataOutputStream out = new DataOutputStream(bytes);
+    long recordPosition = position.incrementAndGet();
+    try {
+      out.writeByte(type);
+      out.writeLong(recordPosition);
+      fields.write(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    CompletableFuture<Void> durable =
+        syncMode == SyncMode.ALWAYS ? new CompletableFuture<Void>() : DONE;
+    queue.add(new Entry(recordPosition, bytes.toByteArray(), durable));
+    // the writer may have failed and drained the queue since the check above
+    if (failure != null) {
+      failQueued();
+      throw new UncheckedIOException("Stock log failed", failure);
+    }
+    return durable;
+  }
+
+  private void write() {
+    List<Entry> batch = new ArrayList<Entry>();
+    ByteArrayOutputStream frames = new ByteArrayOutputStream(1 << 16);
+    DataOutputStream out = new DataOutputStream(frames);
+    CRC32 crc = new CRC32();
+    long lastSync = System.nanoTime();
+    boolean unsynced = false;
+
+    try {
+      while (!closed || !queue.isEmpty()) {
+        Entry first = queue.poll(10, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch);
+        }
+
+        for (Entry entry : batch) {
+          if (entry.record == null) {
+            writeFrames(frames);
+            segment.force(false);
+            segment.close();
+            segment = openSegment(entry.position + 1);
+            continue;
+          }
+          crc.reset();
+          crc.update(entry.record, 0, entry.record.length);
+          out.writeInt(entry.record.length);
+          out.writeInt((int) crc.getValue());
+          out.write(entry.record);
+        }
+        unsynced |= writeFrames(frames);
+
+        boolean syncDue = syncMode == SyncMode.ALWAYS
+            || (syncMode == SyncMode.INTERVAL && System.nanoTime() - lastSync >= syncIntervalNanos);
+        if (unsynced && syncDue) {
+          segment.force(false);
+          lastSync = System.nanoTime();
+          unsynced = false;
+        }
+
+        for (Entry entry : batch) {
+          entry.durable.complete(null);
+        }
+        batch.clear();
+      }
+      segment.force(false);
+      segment.close();
+    } catch (IOException e) {
+      failure = e;
+      LOG.severe(String.format("Stock log failed: %s", e.getMessage()));
+      fail(batch, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean writeFrames(ByteArrayOutputStream frames) throws IOException {
+    if (frames.size() == 0) {
+      return false;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(frames.toByteArray());
+    while (buffer.hasRemaining()) {
+      segment.write(buffer);
+    }
+    frames.reset();
+    return true;
+  }
+
+  // fails entries queued after the writer stopped, which nothing else would complete
+  private void failQueued() {
+    fail(new ArrayList<Entry>(), failure);
+  }
+
+  private void fail(List<Entry> batch, IOException e) {
+    queue.drainTo(batch);
+    for (Entry entry : batch) {
+      entry.durable.completeExceptionally(e);
+    }
+  }
+
+  private void recover(StockLedger ledger) throws IOException {
+    long checkpointPosition = 0;
+    Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+    if (Files.exists(checkpointFile)) {
+      checkpointPosition = readCheckpoint(checkpointFile, ledger);
+    }
+
+    long lastPosition = checkpointPosition;
+    int replayed = 0;
+    List<Path> segments = segments();
+    for (int index = 0; index < segments.size(); index++) {
+      boolean last = index == segments.size() - 1;
+      try (DataInputStream in = new DataInputStream(
+          new BufferedInputStream(Files.newInputStream(segments.get(index))))) {
+        long validBytes = 0;
+        byte[] record;
+        while ((record = readFrame(in)) != null) {
+          validBytes += 8 + record.length;
+          long recordPosition = ByteBuffer.wrap(record, 1, 8).getLong();
+          if (recordPosition > checkpointPosition) {
+            replay(record, ledger);
+            replayed++;
+          }
+          lastPosition = Math.max(lastPosition, recordPosition);
+        }
+        if (validBytes < Files.size(segments.get(index))) {
+          if (!last) {
+            throw new IOException("Corrupt stock log segment " + segments.get(index));
+          }
+          LOG.warning(String.format("Dropping a torn record at the end of %s",
+              segments.get(index)));
+          truncate(segments.get(index), validBytes);
+        }
+      }
+    }
+
+    position.set(lastPosition);
+    segment = openSegment(lastPosition + 1);
+    LOG.info(String.format("Recovered stock from position %d, replayed %d records",
+        checkpointPosition, replayed));
+  }
+
+  private static void truncate(Path file, long size) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(size);
+      channel.force(true);
+    }
+  }
+
+  private static long readCheckpoint(Path file, StockLedger ledger) throws IOException {
+    try (InputStream stream = Files.newInputStream(file)) {
+      CheckedInputStream checked =
+          new CheckedInputStream(new BufferedInputStream(stream), new CRC32());
+      DataInputStream in = new DataInputStream(checked);
+      if (in.readInt() != CHECKPOINT_MAGIC) {
+        throw new IOException("Not a stock checkpoint: " + file);
+      }
+      long checkpointPosition = in.readLong();
+      ledger.restoreNextReservationId(in.readLong());
+
+      int changes = in.readInt();
+      for (int change = 0; change < changes; change++) {
+        ledger.restoreUnits(in.readUTF(), in.readUTF(), in.readLong());
+      }
+      int holds = in.readInt();
+      for (int hold = 0; hold < holds; hold++) {
+        ledger.restoreReserved(in.readLong(), in.readUTF(), in.readUTF(), in.readLong(),
+            in.readLong(), false);
+      }
+
+      long expected = checked.getChecksum().getValue();
+      if (new DataInputStream(checked).readLong() != expected) {
+        throw new IOException("Corrupt stock checkpoint: " + file);
+      }
+      return checkpointPosition;
+    }
+  }
+
+  private static void writeCheckpoint(DataOutputStream out, StockLedger.Checkpoint checkpoint)
+      throws IOException {
+    out.writeInt(CHECKPOINT_MAGIC);
+    out.writeLong(checkpoint.position);
+    out.writeLong(checkpoint.nextReservationId);
+    out.writeInt(checkpoint.changes.size());
+    for (StockLedger.Change change : checkpoint.changes) {
+      out.writeUTF(change.vendorName);
+      out.writeUTF(change.itemName);
+      out.writeLong(change.units);
+    }
+    out.writeInt(checkpoint.holds.size());
+    for (StockLedger.Hold hold : checkpoint.holds) {
+      out.writeLong(hold.id);
+      out.writeUTF(hold.vendorName);
+      out.writeUTF(hold.itemName);
+      out.writeLong(hold.units);
+      out.writeLong(hold.expiresAtMillis);
+    }
+  }
+
+  /**
+   * Returns the next record, or null at the end of the segment or at a torn or corrupt frame
+   */
+  private static byte[] readFrame(DataInputStream in) throws IOException {
+    try {
+      int length = in.readInt();
+      int checksum = in.readInt();
+      if (length <= 0 || length > MAX_RECORD_BYTES) {
+        return null;
+      }
+      byte[] record = new byte[length];
+      in.readFully(record);
+
+      CRC32 crc = new CRC32();
+      crc.update(record, 0, length);
+      return (int) crc.getValue() == checksum ? record : null;
+    } catch (EOFException e) {
+      return null;
+    }
+  }
+
+  private static void replay(byte[] record, StockLedger ledger) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    byte type = in.readByte();
+    in.readLong();
+    switch (type) {
+      case RESERVED:
+        ledger.restoreReserved(in.readLong(), in.readUTF(), in.readUTF(), in.readLong(),
+            in.readLong(), true);
+        break;
+      case COMMITTED:
+        ledger.restoreSettled(in.readLong(), false);
+        break;
+      case RELEASED:
+        ledger.restoreSettled(in.readLong(), true);
+        break;
+      case RESET:
+        ledger.restoreReset();
+        break;
+      default:
+        throw new IOException("Unknown stock log record type " + type);
+    }
+  }
+
+  private FileChannel openSegment(long start) throws IOException {
+    return FileChannel.open(directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, start,
+        SEGMENT_SUFFIX)), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  private List<Path> segments() throws IOException {
+    List<Path> segments = new ArrayList<Path>();
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      files.forEach(segments::add);
+    }
+    Collections.sort(segments);
+    return segments;
+  }
+
+  private static long segmentStart(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  @FunctionalInterface
+  private interface RecordWriter {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private static final class Entry {
+    final long position;
+    // null marks a segment roll
+    final byte[] record;
+    final CompletableFuture<Void> durable;
+
+    Entry(long position, byte[] record, CompletableFuture<Void> durable) {
+      this.position = position;
+      this.record = record;
+      this.durable = durable;
+    }
+  }
+}
@@ -11,6 +11,10 @@ public class VendorInventory {
   private Vendor vendor;
   private List<Ingredient> ingredients;
 
+  public VendorInventory() {
+    this.ingredients = new ArrayList<Ingredient>();
+  }
+
   public VendorInventory(Vendor vendor, Ingredient ingredient) {
     this.vendor = vendor;
     this.ingredients = new ArrayList<Ingredient>();
@@ -31,7 +35,7 @@ public class VendorInventory {
   }
 
   public Ingredient getIngredient(String name) {
-    return ingredients.stream().filter(ingredient -> ingredient.getName() == name).findFirst()
+    return ingredients.stream().filter(ingredient -> name.equals(ingredient.getName())).findFirst()
         .get();
   }
 }
@@ -0,0 +1,85 @@
+package starterproject.foodvendor.grpc;
+
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.Tracer;
+import starterproject.foodvendor.data.Ingredient;
+import starterproject.foodvendor.data.Inventory;
+import starterproject.foodvendor.data.StockLedger;
+import starterproject.foodvendor.data.VendorInventory;
+import starterproject.foodvendor.proto.FoodVendorGrpc;
+import starterproject.foodvendor.proto.InventoryRecord;
+import starterproject.foodvendor.proto.VendorQuery;
+import starterproject.foodvendor.services.FoodVendorService;
+
+/**
+ * Answers a stream of vendors with their inventories over gRPC, one record per vendor as soon as
+ * the vendor arrives. The whole stream is answered from the stock current when it started, like a
+ * batch request.
+ */
+@Component
+public class FoodVendorGrpcService extends FoodVendorGrpc.FoodVendorImplBase {
+  private static final Logger LOG = Logger.getLogger(FoodVendorGrpcService.class.getName());
+
+  @Autowired
+  private FoodVendorService foodVendorService;
+  @Autowired
+  Tracer tracer;
+
+  @Override
+  public StreamObserver<VendorQuery> getIngredientFromVendors(
+      StreamObserver<InventoryRecord> responseObserver) {
+    Span span = tracer.getCurrentSpan();
+    span.addEvent("FoodVendorGrpcService getIngredientFromVendors");
+    StockLedger.Stock stock = foodVendorService.getStockLedger().getStock();
+
+    return new StreamObserver<VendorQuery>() {
+      private int vendors;
+      private int inventories;
+
+      @Override
+      public void onNext(VendorQuery query) {
+        vendors++;
+        Inventory store = stock.getInventory();
+        int itemId = store.getItemId(query.getIngredientName());
+        int slot = itemId == Inventory.NOT_FOUND
+            ? Inventory.NOT_FOUND
+            : store.getSlot(query.getVendorName(), itemId);
+        if (slot == Inventory.NOT_FOUND) {
+          return;
+        }
+
+        VendorInventory inventory = stock.getVendorInventory(slot);
+        Ingredient ingredient = inventory.getIngredients().get(0);
+        InventoryRecord.Builder record = InventoryRecord.newBuilder()
+            .setVendorName(inventory.getVendor().getName()).setIngredientName(ingredient.getName())
+            .setPrice(ingredient.getPrice()).setQuantity(ingredient.getQuantity());
+        if (ingredient.getCurrency() != null) {
+          record.setCurrency(ingredient.getCurrency());
+        }
+        responseObserver.onNext(record.build());
+        inventories++;
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        span.setStatus(Status.ABORTED);
+        span.addEvent("Error while receiving vendors");
+        LOG.severe(String.format("Error while receiving vendors: %s", t.getMessage()));
+      }
+
+      @Override
+      public void onCompleted() {
+        span.setAttribute("vendors", vendors);
+        span.setAttribute("inventories", inventories);
+        responseObserver.onCompleted();
+      }
+    };
+  }
+}
@@ -0,0 +1,69 @@
+package starterproject.foodvendor.grpc;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import starterproject.foodvendor.telemetry.GrpcTraceInterceptor;
+import starterproject.foodvendor.telemetry.VirtualThreadConfig;
+
+/**
+ * Serves the gRPC services next to the REST controllers, on their own port. Calls run on virtual
+ * threads when spring.threads.virtual.enabled is true and the runtime has them.
+ */
+@Component
+@ConditionalOnProperty(name = "foodvendor.grpc.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class GrpcServer {
+  private static final Logger LOG = Logger.getLogger(GrpcServer.class.getName());
+
+  @Autowired
+  private FoodVendorGrpcService foodVendorGrpcService;
+  @Autowired
+  private GrpcTraceInterceptor grpcTraceInterceptor;
+  @Value("${foodvendor.grpc.port:9082}")
+  int port;
+  @Value("${spring.threads.virtual.enabled:false}")
+  boolean virtualThreads;
+
+  private Server server;
+  private ExecutorService executor;
+
+  @PostConstruct
+  public void start() throws IOException {
+    ServerBuilder<?> builder = ServerBuilder.forPort(port);
+    if (virtualThreads) {
+      executor = VirtualThreadConfig.newVirtualThreadExecutor("grpc-virtual-");
+    }
+    if (executor != null) {
+      builder.executor(executor);
+    }
+    server = builder
+        .addService(ServerInterceptors.intercept(foodVendorGrpcService, grpcTraceInterceptor))
+        .build().start();
+    LOG.info(String.format("gRPC server listening on port %d", server.getPort()));
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    server.shutdown();
+    if (!server.awaitTermination(5, TimeUnit.SECONDS)) {
+      server.shutdownNow();
+    }
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+}
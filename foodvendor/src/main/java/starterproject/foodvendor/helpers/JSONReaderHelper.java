@@ -1,39 +1,143 @@
 package starterproject.foodvendor.helpers;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
 
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
-import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 /**
- * 
+ *
  * Read JSON file
  *
+ * Streams a { vendor: { item: { price, quantity, currency } } } catalog token by token and hands
+ * every entry to a handler, so the catalog is never held in memory as text or as a tree
+ *
  */
 public class JSONReaderHelper {
-  public static JSONObject getData(String resourceName) {
-    JSONObject dataJson = new JSONObject();
-    try {
-      Resource resource = new ClassPathResource(resourceName);
-      String jsonString =
-          StreamUtils.copyToString(resource.getInputStream(), Charset.defaultCharset());
-
-      JSONParser jsonParser = new JSONParser();
-      dataJson = (JSONObject) jsonParser.parse(jsonString);
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-    } catch (IOException e) {
-      e.printStackTrace();
-    } catch (ParseException e) {
-      e.printStackTrace();
-    }
-
-    return dataJson;
+  private static final Logger LOG = Logger.getLogger(JSONReaderHelper.class.getName());
+  private static final int PROGRESS_INTERVAL = 100000;
+  private static final String PRICE = "price";
+  private static final String QUANTITY = "quantity";
+  private static final String CURRENCY = "currency";
+
+  // vendor and item names are mostly unique, canonicalizing them would only grow the symbol table
+  private static final JsonFactory JSON_FACTORY =
+      new JsonFactory().disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
+
+  /**
+   * Receives each inventory entry of the catalog in file order
+   */
+  @FunctionalInterface
+  public interface InventoryItemHandler {
+    void onItem(String vendorName, String itemName, float price, float quantity, String currency);
+  }
+
+  public static void readInventory(String resourceName, InventoryItemHandler handler)
+      throws IOException {
+    Resource resource = new ClassPathResource(resourceName);
+    try (InputStream in = resource.getInputStream()) {
+      readInventory(in, resourceName, resource.contentLength(), handler);
+    }
+  }
+
+  public static void readInventory(Path file, InventoryItemHandler handler) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      readInventory(in, file.toString(), Files.size(file), handler);
+    }
+  }
+
+  /**
+   * @param source name of the catalog used in progress and error messages
+   * @param totalBytes size of the stream if known, or -1
+   * @return the number of inventory entries read
+   * @throws JsonParseException with the line and column of malformed input
+   */
+  public static long readInventory(InputStream in, String source, long totalBytes,
+      InventoryItemHandler handler) throws IOException {
+    long items = 0;
+    try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String vendorName = parser.getCurrentName();
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String itemName = parser.getCurrentName();
+          readItem(parser, vendorName, itemName, handler);
+
+          if (++items % PROGRESS_INTERVAL == 0) {
+            reportProgress(source, items, parser.getCurrentLocation().getByteOffset(), totalBytes);
+          }
+        }
+        expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+      }
+      expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+    }
+
+    LOG.info(String.format("Loaded %d items from %s", items, source));
+    return items;
+  }
+
+  private static void readItem(JsonParser parser, String vendorName, String itemName,
+      InventoryItemHandler handler) throws IOException {
+    expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+    float price = Float.NaN;
+    float quantity = Float.NaN;
+    String currency = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (PRICE.equals(field)) {
+        price = readNumber(parser, value);
+      } else if (QUANTITY.equals(field)) {
+        quantity = readNumber(parser, value);
+      } else if (CURRENCY.equals(field)) {
+        expect(parser, value, JsonToken.VALUE_STRING);
+        currency = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    if (Float.isNaN(price) || Float.isNaN(quantity)) {
+      throw new JsonParseException(parser,
+          String.format("Item %s of %s needs a price and a quantity", itemName, vendorName));
+    }
+    handler.onItem(vendorName, itemName, price, quantity, currency);
+  }
+
+  private static float readNumber(JsonParser parser, JsonToken value) throws IOException {
+    if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT) {
+      throw new JsonParseException(parser, String.format("Expected a number but found %s", value));
+    }
+    return parser.getFloatValue();
+  }
+
+  private static void expect(JsonParser parser, JsonToken actual, JsonToken expected)
+      throws JsonParseException {
+    if (actual != expected) {
+      throw new JsonParseException(parser,
+          String.format("Expected %s but found %s", expected, actual));
+    }
+  }
+
+  private static void reportProgress(String source, long items, long bytesRead, long totalBytes) {
+    if (totalBytes > 0) {
+      LOG.info(String.format("Loading %s: %d items, %d%%", source, items,
+          bytesRead * 100 / totalBytes));
+    } else {
+      LOG.info(String.format("Loading %s: %d items, %d bytes", source, items, bytesRead));
+    }
   }
 }
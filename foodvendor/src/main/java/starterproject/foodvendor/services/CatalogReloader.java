@@ -0,0 +1,134 @@
+package starterproject.foodvendor.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Reloads the vendor catalog on request or, when foodvendor.catalog.watch is set, whenever the
+ * catalog file changes. Reports the build time, snapshot version and size as metrics.
+ */
+@Component
+public class CatalogReloader {
+  private static final Logger LOG = Logger.getLogger(CatalogReloader.class.getName());
+
+  private final FoodVendorService foodVendorService;
+  private final Timer buildTimer;
+  private final boolean watch;
+  private final long debounceMillis;
+  private WatchService watchService;
+
+  @Autowired
+  public CatalogReloader(FoodVendorService foodVendorService, MeterRegistry registry,
+      @Value("${foodvendor.catalog.watch:false}") boolean watch,
+      @Value("${foodvendor.catalog.watch-debounce-ms:500}") long debounceMillis) {
+    this.foodVendorService = foodVendorService;
+    this.watch = watch;
+    this.debounceMillis = debounceMillis;
+    this.buildTimer = Timer.builder("foodvendor.catalog.build")
+        .description("Time spent building a catalog snapshot").register(registry);
+
+    Gauge.builder("foodvendor.catalog.version", foodVendorService,
+        FoodVendorService::getCatalogVersion).register(registry);
+    Gauge.builder("foodvendor.catalog.size", foodVendorService,
+        FoodVendorService::getCatalogSize).register(registry);
+  }
+
+  /**
+   * @return the version of the new snapshot
+   * @throws UncheckedIOException if the catalog cannot be read, the current snapshot is kept
+   */
+  public long reload() {
+    long start = System.nanoTime();
+    long version = foodVendorService.reload();
+    long elapsed = System.nanoTime() - start;
+    buildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+    LOG.info(String.format("Loaded catalog version %d with %d items in %d ms", version,
+        foodVendorService.getCatalogSize(), TimeUnit.NANOSECONDS.toMillis(elapsed)));
+    return version;
+  }
+
+  @PostConstruct
+  public void startWatching() throws IOException {
+    String catalogPath = foodVendorService.getCatalogPath();
+    if (!watch || catalogPath.isEmpty()) {
+      return;
+    }
+
+    Path catalog = Paths.get(catalogPath).toAbsolutePath();
+    watchService = FileSystems.getDefault().newWatchService();
+    catalog.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY);
+
+    Thread watcher = new Thread(() -> watch(catalog), "catalog-watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+    LOG.info(String.format("Watching %s for changes", catalog));
+  }
+
+  @PreDestroy
+  public void stopWatching() throws IOException {
+    if (watchService != null) {
+      watchService.close();
+    }
+  }
+
+  private void watch(Path catalog) {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+          changed |= catalog.getFileName().equals(event.context());
+        }
+        key.reset();
+
+        if (changed) {
+          // editors and copies write in several steps, wait for the file to settle
+          Thread.sleep(debounceMillis);
+          drain();
+          reloadQuietly();
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      LOG.info("Stopped watching the catalog");
+    }
+  }
+
+  private void drain() {
+    WatchKey key;
+    while ((key = watchService.poll()) != null) {
+      key.pollEvents();
+      key.reset();
+    }
+  }
+
+  private void reloadQuietly() {
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      LOG.severe(String.format("Keeping the current catalog, reload failed: %s", e.getMessage()));
+    }
+  }
+}
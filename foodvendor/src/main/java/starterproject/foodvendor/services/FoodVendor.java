@@ -1,6 +1,7 @@
 package starterproject.foodvendor.services;
 
 import java.util.List;
+import java.util.Map;
 
 import starterproject.foodvendor.data.VendorInventory;
 import starterproject.foodvendor.data.Vendor;
@@ -11,4 +12,7 @@ import starterproject.foodvendor.data.Vendor;
 public interface FoodVendor {
 
   public List<VendorInventory> getIngredientFromVendors(List<Vendor> vendors, String itemName);
+
+  public Map<String, List<VendorInventory>> getIngredientsFromVendors(
+      Map<String, List<Vendor>> vendorsByItem);
 }
@@ -1,54 +1,210 @@
 package starterproject.foodvendor.services;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
 
-import org.json.simple.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
-import starterproject.foodvendor.data.Ingredient;
+import starterproject.foodvendor.data.Inventory;
+import starterproject.foodvendor.data.InventoryStore;
+import starterproject.foodvendor.data.MappedInventory;
+import starterproject.foodvendor.data.StockLedger;
 import starterproject.foodvendor.data.VendorInventory;
 import starterproject.foodvendor.data.Vendor;
 import starterproject.foodvendor.helpers.JSONReaderHelper;
 
 /**
- * Maps vendors to available ingredients ingredients
+ * Maps vendors to available ingredients ingredients. The inventory is an immutable snapshot that a
+ * reload replaces in one write, so lookups never block and never see a partly built catalog. When a
+ * snapshot path is set the inventory is served from a memory-mapped binary snapshot that is rebuilt
+ * from the JSON catalog only when the catalog it was built from has changed.
  */
 @Service
 public class FoodVendorService implements FoodVendor {
-  private static final String PRICE = "price";
-  private static final String QUANTITY = "quantity";
-  private static final String CURRENCY = "currency";
+  private static final Logger LOG = Logger.getLogger(FoodVendorService.class.getName());
   private static final String VENDOR_FILE = "vendors.json";
 
-  private JSONObject vendorsToItemsJson = new JSONObject();
+  private final String catalogPath;
+  private final String snapshotPath;
+  private final StockLedger stockLedger;
+  private volatile long catalogVersion = 1;
 
   public FoodVendorService() {
-    vendorsToItemsJson = JSONReaderHelper.getData(VENDOR_FILE);
+    this("", "");
   }
 
+  public FoodVendorService(String catalogPath) {
+    this(catalogPath, "");
+  }
+
+  /**
+   * @param catalogPath catalog file to load and reload from, or empty for the bundled catalog
+   * @param snapshotPath binary snapshot to map the inventory from, or empty to keep it on the heap
+   */
+  @Autowired
+  public FoodVendorService(@Value("${foodvendor.catalog.path:}") String catalogPath,
+      @Value("${foodvendor.catalog.snapshot-path:}") String snapshotPath) {
+    this.catalogPath = catalogPath;
+    this.snapshotPath = snapshotPath;
+    this.stockLedger = new StockLedger(loadInventory(false));
+  }
+
+  public FoodVendorService(Inventory inventory) {
+    this.catalogPath = "";
+    this.snapshotPath = "";
+    this.stockLedger = new StockLedger(inventory);
+  }
+
+  /**
+   * Returns the inventory entry of every vendor that stocks the item, with the quantity still
+   * available for reservation. Vendors without the item are left out.
+   */
   @Override
   public List<VendorInventory> getIngredientFromVendors(List<Vendor> vendors, String itemName) {
-    List<VendorInventory> inventories = new ArrayList<VendorInventory>();
+    return getIngredientFromVendors(stockLedger.getStock(), vendors, itemName);
+  }
+
+  /**
+   * Looks up every item against its own vendor list, keyed in request order. All items are looked
+   * up in the same snapshot.
+   */
+  @Override
+  public Map<String, List<VendorInventory>> getIngredientsFromVendors(
+      Map<String, List<Vendor>> vendorsByItem) {
+    StockLedger.Stock stock = stockLedger.getStock();
+    Map<String, List<VendorInventory>> inventoriesByItem =
+        new LinkedHashMap<String, List<VendorInventory>>(vendorsByItem.size() * 2);
+    for (Map.Entry<String, List<Vendor>> entry : vendorsByItem.entrySet()) {
+      inventoriesByItem.put(entry.getKey(),
+          getIngredientFromVendors(stock, entry.getValue(), entry.getKey()));
+    }
+    return inventoriesByItem;
+  }
+
+  /**
+   * Builds a new inventory from the catalog on the calling thread and swaps it in. Lookups keep
+   * using the current one until the new one is complete, and keep it if the catalog cannot be read.
+   *
+   * @return the version of the new snapshot
+   * @throws UncheckedIOException if the catalog is missing or malformed
+   */
+  public synchronized long reload() {
+    stockLedger.swap(loadInventory(true));
+    return ++catalogVersion;
+  }
+
+  public String getCatalogPath() {
+    return catalogPath;
+  }
+
+  public long getCatalogVersion() {
+    return catalogVersion;
+  }
+
+  public int getCatalogSize() {
+    return stockLedger.getStock().getInventory().size();
+  }
+
+  public StockLedger getStockLedger() {
+    return stockLedger;
+  }
+
+  private static List<VendorInventory> getIngredientFromVendors(StockLedger.Stock stock,
+      List<Vendor> vendors, String itemName) {
+    Inventory store = stock.getInventory();
+    List<VendorInventory> inventories = new ArrayList<VendorInventory>(vendors.size());
+    int itemId = store.getItemId(itemName);
+    if (itemId == Inventory.NOT_FOUND) {
+      return inventories;
+    }
 
     for (Vendor vendor : vendors) {
-      Ingredient ingredient = getIngredient(itemName, vendor.getName());
-      VendorInventory vendorInventory = new VendorInventory(vendor, ingredient);
-      inventories.add(vendorInventory);
+      int slot = store.getSlot(vendor.getName(), itemId);
+      if (slot != Inventory.NOT_FOUND) {
+        inventories.add(stock.getVendorInventory(slot));
+      }
     }
 
     return inventories;
   }
 
-  private Ingredient getIngredient(String itemName, String vendorName) {
-    JSONObject vendorItemsJson = (JSONObject) vendorsToItemsJson.get(vendorName);
-    JSONObject itemJson = (JSONObject) vendorItemsJson.get(itemName);
+  private Inventory loadInventory(boolean rebuild) {
+    if (snapshotPath.isEmpty()) {
+      return loadStore(catalogPath);
+    }
 
-    Long quantity = (Long) itemJson.get(QUANTITY);
-    Long price = (Long) itemJson.get(PRICE);
-    String currency = (String) itemJson.get(CURRENCY);
+    Path snapshot = Paths.get(snapshotPath);
+    try {
+      // taken before loading, so a catalog changed meanwhile is rebuilt on the next start
+      long catalogStamp = catalogStamp();
+      if (!rebuild && Files.exists(snapshot)) {
+        try {
+          MappedInventory inventory = MappedInventory.open(snapshot);
+          if (inventory.getCatalogStamp() == catalogStamp) {
+            return inventory;
+          }
+          LOG.info(String.format("Rebuilding snapshot %s of a changed catalog", snapshot));
+        } catch (IOException e) {
+          LOG.warning(String.format("Rebuilding unreadable snapshot %s: %s", snapshot,
+              e.getMessage()));
+        }
+      }
+      MappedInventory.write(loadStore(catalogPath), snapshot, catalogStamp);
+      return MappedInventory.open(snapshot);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write snapshot " + snapshot, e);
+    }
+  }
 
-    Ingredient ingredient = new Ingredient(itemName, price, quantity, currency);
-    return ingredient;
+  // stamped by the catalog's location, size and modification time so that it is never read. The
+  // bundled catalog's time is that of its jar entry or class path file, and changes with a rebuild.
+  private long catalogStamp() throws IOException {
+    String stamp;
+    if (catalogPath.isEmpty()) {
+      ClassPathResource catalog = new ClassPathResource(VENDOR_FILE);
+      stamp = String.format("%s:%d:%d", catalog.getURL(), catalog.contentLength(),
+          catalog.lastModified());
+    } else {
+      Path catalog = Paths.get(catalogPath).toAbsolutePath();
+      stamp = String.format("%s:%d:%d", catalog, Files.size(catalog),
+          Files.getLastModifiedTime(catalog).toMillis());
+    }
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    return ByteBuffer.wrap(digest.digest(stamp.getBytes(StandardCharsets.UTF_8))).getLong();
+  }
+
+  private static InventoryStore loadStore(String catalogPath) {
+    InventoryStore.Builder builder = InventoryStore.newBuilder();
+    try {
+      if (catalogPath.isEmpty()) {
+        JSONReaderHelper.readInventory(VENDOR_FILE, builder::addItem);
+      } else {
+        JSONReaderHelper.readInventory(Paths.get(catalogPath), builder::addItem);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          "Could not load " + (catalogPath.isEmpty() ? VENDOR_FILE : catalogPath), e);
+    }
+    return builder.build();
   }
 }
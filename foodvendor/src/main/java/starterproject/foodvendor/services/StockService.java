@@ -0,0 +1,148 @@
+package starterproject.foodvendor.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import starterproject.foodvendor.data.Reservation;
+import starterproject.foodvendor.data.StockLedger;
+import starterproject.foodvendor.data.StockWriteAheadLog;
+
+/**
+ * Reserves, commits and releases vendor stock. Reservations that are neither committed nor released
+ * within the reservation TTL are released in the background. With a write-ahead log directory
+ * configured, stock changes survive a restart: the ledger is recovered from the log on startup and
+ * checkpointed periodically and on shutdown.
+ */
+@Service
+public class StockService {
+  private static final Logger LOG = Logger.getLogger(StockService.class.getName());
+
+  private final StockLedger stockLedger;
+  private final long reservationTtlMillis;
+  private final ScheduledExecutorService sweeper;
+  private final Counter rejected;
+  private final Counter expired;
+  private final StockWriteAheadLog writeAheadLog;
+
+  @Autowired
+  public StockService(FoodVendorService foodVendorService, MeterRegistry registry,
+      @Value("${foodvendor.stock.reservation-ttl-ms:60000}") long reservationTtlMillis,
+      @Value("${foodvendor.stock.sweep-interval-ms:1000}") long sweepIntervalMillis,
+      @Value("${foodvendor.stock.wal.dir:}") String walDirectory,
+      @Value("${foodvendor.stock.wal.sync-mode:INTERVAL}") String syncMode,
+      @Value("${foodvendor.stock.wal.sync-interval-ms:10}") long syncIntervalMillis,
+      @Value("${foodvendor.stock.wal.checkpoint-interval-ms:60000}")
+      long checkpointIntervalMillis) {
+    this.stockLedger = foodVendorService.getStockLedger();
+    this.reservationTtlMillis = reservationTtlMillis;
+    this.rejected = Counter.builder("foodvendor.stock.rejected")
+        .description("Reservations refused for lack of stock").register(registry);
+    this.expired = Counter.builder("foodvendor.stock.expired")
+        .description("Reservations released after their TTL").register(registry);
+    Gauge.builder("foodvendor.stock.reservations", stockLedger, StockLedger::getOpenReservations)
+        .register(registry);
+
+    // recovery restores the ledger unlocked and installs the journal, so it runs before any sweep
+    if (walDirectory == null || walDirectory.isEmpty()) {
+      this.writeAheadLog = null;
+    } else {
+      try {
+        this.writeAheadLog = StockWriteAheadLog.open(Paths.get(walDirectory), stockLedger,
+            StockWriteAheadLog.SyncMode.valueOf(syncMode.trim().toUpperCase()),
+            syncIntervalMillis);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not recover stock from " + walDirectory, e);
+      }
+    }
+
+    this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "reservation-sweeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    sweeper.scheduleWithFixedDelay(this::releaseExpired, sweepIntervalMillis, sweepIntervalMillis,
+        TimeUnit.MILLISECONDS);
+    if (writeAheadLog != null) {
+      sweeper.scheduleWithFixedDelay(this::checkpoint, checkpointIntervalMillis,
+          checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * @return the reservation, or null if the vendor has less than the quantity left
+   * @throws IllegalArgumentException if the vendor does not stock the item or the quantity is not
+   *         positive
+   */
+  public Reservation reserve(String vendorName, String itemName, float quantity) {
+    Reservation reservation = stockLedger.reserve(vendorName, itemName, quantity,
+        System.currentTimeMillis() + reservationTtlMillis);
+    if (reservation == null) {
+      rejected.increment();
+    }
+    return reservation;
+  }
+
+  public boolean commit(long reservationId) {
+    return stockLedger.commit(reservationId);
+  }
+
+  public boolean release(long reservationId) {
+    return stockLedger.release(reservationId);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    sweeper.shutdownNow();
+    if (writeAheadLog == null) {
+      return;
+    }
+    try {
+      sweeper.awaitTermination(10, TimeUnit.SECONDS);
+      writeAheadLog.checkpoint(stockLedger);
+    } catch (IOException e) {
+      LOG.severe(String.format("Error while checkpointing stock: %s", e.getMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        writeAheadLog.close();
+      } catch (IOException e) {
+        LOG.severe(String.format("Error while closing the stock log: %s", e.getMessage()));
+      }
+    }
+  }
+
+  private void checkpoint() {
+    try {
+      writeAheadLog.checkpoint(stockLedger);
+    } catch (IOException | RuntimeException e) {
+      LOG.severe(String.format("Error while checkpointing stock: %s", e.getMessage()));
+    }
+  }
+
+  private void releaseExpired() {
+    try {
+      int released = stockLedger.releaseExpired(System.currentTimeMillis());
+      if (released > 0) {
+        expired.increment(released);
+        LOG.info(String.format("Released %d expired reservations", released));
+      }
+    } catch (RuntimeException e) {
+      LOG.severe(String.format("Error while releasing expired reservations: %s", e.getMessage()));
+    }
+  }
+}
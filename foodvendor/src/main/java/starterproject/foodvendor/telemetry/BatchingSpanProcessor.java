@@ -0,0 +1,169 @@
+package starterproject.foodvendor.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Exports ended spans in batches from a background thread, so span.end() on the request thread
+ * only enqueues. A batch is sent once maxExportBatchSize spans are queued or scheduleDelayMillis
+ * has passed. When the queue is full new spans are dropped and counted. Queued spans are drained
+ * on shutdown. The exported, dropped and queued counts are published as gauges tagged with the
+ * exporter.
+ */
+public class BatchingSpanProcessor implements SpanProcessor {
+  private static final Logger LOG = Logger.getLogger(BatchingSpanProcessor.class.getName());
+
+  private final SpanExporter spanExporter;
+  private final int maxQueueSize;
+  private final int maxExportBatchSize;
+  private final long scheduleDelayNanos;
+  private final long shutdownTimeoutMillis;
+
+  private final Queue<ReadableSpan> queue = new ConcurrentLinkedQueue<ReadableSpan>();
+  private final AtomicInteger queueSize = new AtomicInteger();
+  private final AtomicLong droppedSpans = new AtomicLong();
+  private final AtomicLong exportedSpans = new AtomicLong();
+  private final Thread worker;
+  private volatile boolean shutdown;
+
+  public BatchingSpanProcessor(SpanExporter spanExporter, int maxQueueSize, int maxExportBatchSize,
+      long scheduleDelayMillis, long shutdownTimeoutMillis, MeterRegistry registry) {
+    this.spanExporter = spanExporter;
+    this.maxQueueSize = maxQueueSize;
+    this.maxExportBatchSize = maxExportBatchSize;
+    this.scheduleDelayNanos = TimeUnit.MILLISECONDS.toNanos(scheduleDelayMillis);
+    this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+
+    String exporter = spanExporter.getClass().getSimpleName();
+    Gauge.builder("foodvendor.spans.exported", exportedSpans, AtomicLong::get)
+        .tag("exporter", exporter).register(registry);
+    Gauge.builder("foodvendor.spans.dropped", droppedSpans, AtomicLong::get)
+        .tag("exporter", exporter).description("Spans dropped because the queue was full")
+        .register(registry);
+    Gauge.builder("foodvendor.spans.queued", queueSize, AtomicInteger::get)
+        .tag("exporter", exporter).register(registry);
+
+    this.worker = new Thread(this::run, "span-exporter");
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  @Override
+  public void onStart(ReadableSpan span) {}
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    if (shutdown) {
+      droppedSpans.incrementAndGet();
+      return;
+    }
+
+    int size = queueSize.incrementAndGet();
+    if (size > maxQueueSize) {
+      queueSize.decrementAndGet();
+      droppedSpans.incrementAndGet();
+      return;
+    }
+    queue.offer(span);
+
+    if (size % maxExportBatchSize == 0) {
+      LockSupport.unpark(worker);
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    if (shutdown) {
+      return;
+    }
+    shutdown = true;
+    LockSupport.unpark(worker);
+
+    try {
+      worker.join(shutdownTimeoutMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    spanExporter.shutdown();
+
+    LOG.info(String.format("Span exporter stopped, exported: %d, dropped: %d",
+        exportedSpans.get(), droppedSpans.get()));
+  }
+
+  /**
+   * Exports every queued span on the calling thread
+   */
+  public void forceFlush() {
+    exportQueued();
+  }
+
+  public long getDroppedSpans() {
+    return droppedSpans.get();
+  }
+
+  public long getExportedSpans() {
+    return exportedSpans.get();
+  }
+
+  public int getQueueSize() {
+    return queueSize.get();
+  }
+
+  private void run() {
+    long reportedDrops = 0;
+    while (!shutdown) {
+      exportQueued();
+
+      long drops = droppedSpans.get();
+      if (drops != reportedDrops) {
+        LOG.warning(String.format("Span queue full, dropped %d spans so far", drops));
+        reportedDrops = drops;
+      }
+
+      if (queueSize.get() < maxExportBatchSize) {
+        LockSupport.parkNanos(this, scheduleDelayNanos);
+      }
+    }
+    exportQueued();
+  }
+
+  private synchronized void exportQueued() {
+    List<ReadableSpan> batch = new ArrayList<ReadableSpan>(maxExportBatchSize);
+    ReadableSpan span;
+    while ((span = queue.poll()) != null) {
+      queueSize.decrementAndGet();
+      batch.add(span);
+      if (batch.size() == maxExportBatchSize) {
+        export(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      export(batch);
+    }
+  }
+
+  private void export(List<ReadableSpan> batch) {
+    try {
+      spanExporter.export(
+          batch.stream().map(ReadableSpan::toSpanData).collect(Collectors.toList()));
+      exportedSpans.addAndGet(batch.size());
+    } catch (Exception e) {
+      LOG.warning(String.format("Failed to export %d spans: %s", batch.size(), e.getMessage()));
+    }
+  }
+}
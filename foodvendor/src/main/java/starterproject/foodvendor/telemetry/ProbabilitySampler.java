@@ -0,0 +1,27 @@
+package starterproject.foodvendor.telemetry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.opentelemetry.trace.SpanContext;
+
+/**
+ * Samples a fixed fraction of requests
+ */
+public class ProbabilitySampler implements TraceSampler {
+  private final double probability;
+
+  /**
+   * @throws IllegalArgumentException if probability is not between 0 and 1
+   */
+  public ProbabilitySampler(double probability) {
+    if (!(probability >= 0 && probability <= 1)) {
+      throw new IllegalArgumentException("Probability must be between 0 and 1: " + probability);
+    }
+    this.probability = probability;
+  }
+
+  @Override
+  public boolean shouldSample(SpanContext parentContext, String endpoint) {
+    return probability >= 1 || ThreadLocalRandom.current().nextDouble() < probability;
+  }
+}
@@ -1,18 +1,45 @@
 package starterproject.foodvendor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
 import starterproject.foodvendor.data.Ingredient;
+import starterproject.foodvendor.data.InventoryStore;
+import starterproject.foodvendor.data.MappedInventory;
+import starterproject.foodvendor.data.Reservation;
+import starterproject.foodvendor.data.StockLedger;
+import starterproject.foodvendor.data.StockWriteAheadLog;
 import starterproject.foodvendor.data.Vendor;
 import starterproject.foodvendor.data.VendorInventory;
+import starterproject.foodvendor.helpers.JSONReaderHelper;
 import starterproject.foodvendor.services.FoodVendor;
 import starterproject.foodvendor.services.FoodVendorService;
 
@@ -41,4 +68,207 @@ public class FoodVendorServiceTest {
     assertEquals(ingredient.getPrice(), PRICE, 0);
     assertEquals(ingredient.getQuantity(), QUANTITY, 0);
   }
+
+  @Test
+  public void testGetIngredientFromVendorsSkipsMissingItems() {
+    FoodVendor foodVendor = new FoodVendorService();
+    List<Vendor> vendors = Arrays.asList(new Vendor(VENDOR_NAME), new Vendor("missing"));
+
+    assertEquals(1, foodVendor.getIngredientFromVendors(vendors, INGREDIENT_NAME).size());
+    assertTrue(foodVendor.getIngredientFromVendors(vendors, "missing").isEmpty());
+  }
+
+  @Test
+  public void testGetIngredientsFromVendors() {
+    FoodVendor foodVendor = new FoodVendorService();
+    Map<String, List<Vendor>> vendorsByItem = new LinkedHashMap<String, List<Vendor>>();
+    vendorsByItem.put(INGREDIENT_NAME, Arrays.asList(new Vendor(VENDOR_NAME)));
+    vendorsByItem.put("item3", Arrays.asList(new Vendor(VENDOR_NAME), new Vendor("shop2")));
+
+    Map<String, List<VendorInventory>> inventoriesByItem =
+        foodVendor.getIngredientsFromVendors(vendorsByItem);
+
+    assertEquals(1, inventoriesByItem.get(INGREDIENT_NAME).size());
+    assertEquals(2, inventoriesByItem.get("item3").size());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void testReadInventoryRejectsItemWithoutPrice() throws Exception {
+    byte[] json = "{\"shop1\":{\"item1\":{\"quantity\":1}}}".getBytes(StandardCharsets.UTF_8);
+    JSONReaderHelper.readInventory(new ByteArrayInputStream(json), "test", json.length,
+        (vendorName, itemName, price, quantity, currency) -> {
+        });
+  }
+
+  @Test
+  public void testReloadSwapsCatalog() throws Exception {
+    Path catalog = Files.createTempFile("vendors", ".json");
+    String item = "{\"shop1\":{\"item1\":{\"price\":%d,\"quantity\":1,\"currency\":\"CAD\"}}}";
+    List<Vendor> vendors = Arrays.asList(new Vendor(VENDOR_NAME));
+    try {
+      Files.write(catalog, String.format(item, 10).getBytes(StandardCharsets.UTF_8));
+      FoodVendorService foodVendor = new FoodVendorService(catalog.toString());
+
+      Files.write(catalog, String.format(item, 12).getBytes(StandardCharsets.UTF_8));
+      assertEquals(2, foodVendor.reload());
+
+      Ingredient ingredient = foodVendor.getIngredientFromVendors(vendors, INGREDIENT_NAME).get(0)
+          .getIngredient(INGREDIENT_NAME);
+      assertEquals(12, ingredient.getPrice(), 0);
+    } finally {
+      Files.delete(catalog);
+    }
+  }
+
+  @Test
+  public void testSnapshotMatchesCatalog() throws Exception {
+    Path snapshot = Files.createTempFile("vendors", ".snapshot");
+    Files.delete(snapshot);
+    try {
+      FoodVendorService foodVendor = new FoodVendorService("", snapshot.toString());
+      List<Vendor> vendors = Arrays.asList(new Vendor("shop1"), new Vendor("shop2"));
+
+      assertTrue(foodVendor.getIngredientFromVendors(vendors, "missing").isEmpty());
+      assertEquals(new FoodVendorService().getIngredientFromVendors(vendors, "item3"),
+          foodVendor.getIngredientFromVendors(vendors, "item3"));
+      assertEquals(9, MappedInventory.open(snapshot).size());
+    } finally {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+
+  @Test
+  public void testSnapshotOfAnotherCatalogIsRebuilt() throws Exception {
+    Path snapshot = Files.createTempFile("vendors", ".snapshot");
+    try {
+      // as left by a deployment with a different bundled catalog
+      MappedInventory.write(InventoryStore.newBuilder().addItem("shop9", "item9", 1, 1, "USD")
+          .build(), snapshot, 42);
+      FoodVendorService foodVendor = new FoodVendorService("", snapshot.toString());
+
+      assertTrue(foodVendor.getIngredientFromVendors(Arrays.asList(new Vendor("shop9")), "item9")
+          .isEmpty());
+      assertEquals(9, MappedInventory.open(snapshot).size());
+    } finally {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+
+  @Test
+  public void testSnapshotOfUnchangedCatalogIsReused() throws Exception {
+    Path snapshot = Files.createTempFile("vendors", ".snapshot");
+    Files.delete(snapshot);
+    try {
+      new FoodVendorService("", snapshot.toString());
+      FileTime written = FileTime.fromMillis(0);
+      Files.setLastModifiedTime(snapshot, written);
+      FoodVendorService foodVendor = new FoodVendorService("", snapshot.toString());
+
+      assertEquals(written, Files.getLastModifiedTime(snapshot));
+      assertEquals(9, foodVendor.getCatalogSize());
+    } finally {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+
+  @Test
+  public void testReservationOnLaterPageLeavesOtherItems() {
+    InventoryStore.Builder builder = InventoryStore.newBuilder();
+    for (int item = 0; item < 3000; item++) {
+      builder.addItem(VENDOR_NAME, "item" + item, PRICE, QUANTITY, "USD");
+    }
+    InventoryStore inventory = builder.build();
+    StockLedger stockLedger = new FoodVendorService(inventory).getStockLedger();
+    StockLedger.Stock stock = stockLedger.getStock();
+    int slot = inventory.getSlot(VENDOR_NAME, inventory.getItemId("item2500"));
+    int otherSlot = inventory.getSlot(VENDOR_NAME, inventory.getItemId("item2499"));
+
+    Reservation reservation =
+        stockLedger.reserve(VENDOR_NAME, "item2500", QUANTITY / 2, Long.MAX_VALUE);
+    assertEquals(QUANTITY / 2, stock.getAvailable(slot), 0);
+    assertEquals(QUANTITY, stock.getAvailable(otherSlot), 0);
+    assertSame(inventory.getInventory(otherSlot), stock.getVendorInventory(otherSlot));
+
+    assertTrue(stockLedger.release(reservation.getId()));
+    assertSame(inventory.getInventory(slot), stock.getVendorInventory(slot));
+  }
+
+  @Test
+  public void testConcurrentReservationsNeverOversell() throws Exception {
+    FoodVendorService foodVendor = new FoodVendorService();
+    StockLedger stockLedger = foodVendor.getStockLedger();
+    AtomicInteger reserved = new AtomicInteger();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int task = 0; task < 100; task++) {
+      executor.execute(() -> {
+        if (stockLedger.reserve(VENDOR_NAME, INGREDIENT_NAME, 0.1f, Long.MAX_VALUE) != null) {
+          reserved.incrementAndGet();
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(10, reserved.get());
+    assertNull(stockLedger.reserve(VENDOR_NAME, INGREDIENT_NAME, 0.1f, Long.MAX_VALUE));
+    List<Vendor> vendors = Arrays.asList(new Vendor(VENDOR_NAME));
+    assertEquals(0, foodVendor.getIngredientFromVendors(vendors, INGREDIENT_NAME).get(0)
+        .getIngredient(INGREDIENT_NAME).getQuantity(), 0);
+  }
+
+  @Test
+  public void testReleaseReturnsStock() {
+    StockLedger stockLedger = new FoodVendorService().getStockLedger();
+    Reservation reservation = stockLedger.reserve(VENDOR_NAME, INGREDIENT_NAME, QUANTITY, 0);
+    assertNotNull(reservation);
+    assertNull(stockLedger.reserve(VENDOR_NAME, INGREDIENT_NAME, QUANTITY, 0));
+
+    assertEquals(1, stockLedger.releaseExpired(1));
+    assertFalse(stockLedger.commit(reservation.getId()));
+    Reservation again = stockLedger.reserve(VENDOR_NAME, INGREDIENT_NAME, QUANTITY, 0);
+    assertTrue(stockLedger.commit(again.getId()));
+    assertFalse(stockLedger.release(again.getId()));
+    assertNull(stockLedger.reserve(VENDOR_NAME, INGREDIENT_NAME, QUANTITY, 0));
+  }
+
+  @Test
+  public void testWriteAheadLogRecoversStock() throws Exception {
+    Path directory = Files.createTempDirectory("stock");
+    try {
+      StockLedger stockLedger = new FoodVendorService().getStockLedger();
+      StockWriteAheadLog log = StockWriteAheadLog.open(directory, stockLedger,
+          StockWriteAheadLog.SyncMode.ALWAYS, 0);
+      Reservation committed = stockLedger.reserve(VENDOR_NAME, INGREDIENT_NAME, 0.3f, 0);
+      assertTrue(stockLedger.commit(committed.getId()));
+      log.checkpoint(stockLedger);
+      Reservation open =
+          stockLedger.reserve(VENDOR_NAME, INGREDIENT_NAME, 0.2f, Long.MAX_VALUE);
+      log.close();
+
+      StockLedger recovered = new FoodVendorService().getStockLedger();
+      log = StockWriteAheadLog.open(directory, recovered, StockWriteAheadLog.SyncMode.ALWAYS, 0);
+      assertEquals(1, recovered.getOpenReservations());
+      assertNull(recovered.reserve(VENDOR_NAME, INGREDIENT_NAME, 0.6f, Long.MAX_VALUE));
+      assertTrue(recovered.release(open.getId()));
+      assertNotNull(recovered.reserve(VENDOR_NAME, INGREDIENT_NAME, 0.7f, Long.MAX_VALUE));
+      log.close();
+    } finally {
+      Files.walk(directory).sorted(Comparator.reverseOrder())
+          .forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Test
+  public void testInventoryRoundTripsThroughCbor() throws Exception {
+    List<Vendor> vendors = Arrays.asList(new Vendor("shop1"), new Vendor("shop2"));
+    List<VendorInventory> inventories =
+        new FoodVendorService().getIngredientFromVendors(vendors, "item3");
+    ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    byte[] encoded = cbor.writeValueAsBytes(inventories);
+    assertTrue(encoded.length < new ObjectMapper().writeValueAsBytes(inventories).length);
+    assertEquals(inventories,
+        cbor.readValue(encoded, new TypeReference<List<VendorInventory>>() {}));
+  }
 }